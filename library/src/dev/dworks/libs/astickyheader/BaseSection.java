@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+/**
+ * Section of the sectioned adapters: the base adapter position of its first
+ * item and its title. getSections() of the adapters returns these, so the
+ * fast scroll overlay shows the title.
+ */
+public class BaseSection {
+	int firstPosition;
+	CharSequence title;
+
+	BaseSection(final int firstPosition, final CharSequence title) {
+		this.firstPosition = firstPosition;
+		this.title = title;
+	}
+
+	public int getFirstPosition() {
+		return firstPosition;
+	}
+
+	public CharSequence getTitle() {
+		return title;
+	}
+
+	@Override
+	public String toString() {
+		return title == null ? "" : title.toString();
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+/** Callback of the setSectionsAsync() methods of the sectioned adapters. */
+public interface OnSectionsReadyListener {
+	/** Called on the main thread once the new sections are shown. */
+	void onSectionsReady();
+
+	/**
+	 * Called on the main thread if the new sections could not be built. The
+	 * current sections are kept. A null section throws right away instead.
+	 */
+	void onSectionsFailed(RuntimeException e);
+}
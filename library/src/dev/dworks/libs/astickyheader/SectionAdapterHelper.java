@@ -0,0 +1,367 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import android.util.Log;
+import android.view.View;
+import android.widget.AbsListView;
+import android.widget.Adapter;
+import android.widget.AdapterView;
+import android.widget.ListView;
+
+/**
+ * Section bookkeeping shared by the sectioned adapters: the section index,
+ * the key scanner of setSectionKeyFunction() and the loader of
+ * setSectionsAsync(). The adapters keep their public methods as thin
+ * delegates and only add the views.
+ */
+abstract class SectionAdapterHelper<T extends BaseSection> {
+	private static final String TAG = "SectionAdapterHelper";
+	private static final Comparator<BaseSection> FIRST_POSITION_ORDER = new Comparator<BaseSection>() {
+		@Override
+		public int compare(final BaseSection o, final BaseSection o1) {
+			return o.firstPosition == o1.firstPosition ? 0 : o.firstPosition < o1.firstPosition ? -1 : 1;
+		}
+	};
+
+	private SectionIndex<T> mIndex = new SectionIndex<T>();
+	private SectionKeyScanner mKeyScanner;
+	private int mGeneration;
+	/** Edits made while setSectionsAsync() builds an index, replayed on it; null if none is built. */
+	private ArrayList<PendingEdit<T>> mPendingEdits;
+	/** Base adapter item of the first shown row before a posted scan, and where it was. */
+	private int mAnchorPosition = -1;
+	private int mAnchorSectionedPosition;
+	private int mAnchorTop;
+
+	SectionIndex<T> getIndex() {
+		return mIndex;
+	}
+
+	void setColumns(final int columns) {
+		mIndex.setColumns(columns);
+	}
+
+	/** Sorts the sections by their first positions and replaces the current ones. */
+	void setSections(final T[] sections) {
+		stopKeyScanner();
+		mGeneration++;
+		mPendingEdits = null;
+		mIndex = buildIndex(sections, mIndex.getColumns());
+		notifyChanged();
+	}
+
+	/**
+	 * Sorts the sections and builds their index on a worker thread. The current
+	 * sections are kept until the new index is swapped in on the main thread,
+	 * followed by a single change notification. The first positions are read
+	 * before this returns and the worker only sorts that copy, so neither the
+	 * array nor the first positions of its sections are touched by it.
+	 * <p>
+	 * Sections appended, inserted or shifted meanwhile are applied to the
+	 * current sections and again to the new ones once they are built, removing
+	 * a section has to wait. A failed build is passed to the listener, or
+	 * logged without one; the current sections are kept either way.
+	 */
+	void setSectionsAsync(final T[] sections, final OnSectionsReadyListener listener) {
+		stopKeyScanner();
+		final int generation = ++mGeneration;
+		final int columns = mIndex.getColumns();
+		// shiftItems() rewrites the first positions of current sections on this thread
+		final T[] snapshot = sections.clone();
+		final long[] keys = new long[snapshot.length];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = (long) snapshot[i].firstPosition << 32 | i;
+		}
+		mPendingEdits = new ArrayList<PendingEdit<T>>();
+		new SectionIndexLoader<T>() {
+			@Override
+			SectionIndex<T> build() {
+				return buildIndex(keys, snapshot, columns);
+			}
+
+			@Override
+			void publish(final SectionIndex<T> index) {
+				if (generation != mGeneration) {
+					return; // superseded by a later call
+				}
+				// the columns may have changed while it was built
+				index.setColumns(mIndex.getColumns());
+				for (final PendingEdit<T> edit : mPendingEdits) {
+					if (edit.section != null) {
+						index.insert(edit.position, 0, edit.section);
+					} else {
+						shift(index, edit.position, edit.delta);
+					}
+				}
+				mPendingEdits = null;
+				mIndex = index;
+				notifyChanged();
+				if (listener != null) {
+					listener.onSectionsReady();
+				}
+			}
+
+			@Override
+			void fail(final RuntimeException e) {
+				if (generation != mGeneration) {
+					return;
+				}
+				mPendingEdits = null;
+				if (listener != null) {
+					listener.onSectionsFailed(e);
+				} else {
+					Log.e(TAG, "Building the sections failed, the current ones are kept", e);
+				}
+			}
+		}.start();
+	}
+
+	private static <T extends BaseSection> SectionIndex<T> buildIndex(final T[] sections, final int columns) {
+		Arrays.sort(sections, FIRST_POSITION_ORDER);
+
+		final SectionIndex<T> index = new SectionIndex<T>(columns);
+		for (final T section : sections) {
+			index.add(section.firstPosition, 0, section);
+		}
+		return index;
+	}
+
+	/**
+	 * Builds an index from first positions packed above the array indices of
+	 * their sections, sorting the keys sorts the sections by first position.
+	 */
+	private static <T extends BaseSection> SectionIndex<T> buildIndex(final long[] keys, final T[] sections,
+			final int columns) {
+		Arrays.sort(keys);
+
+		final SectionIndex<T> index = new SectionIndex<T>(columns);
+		for (final long key : keys) {
+			index.add((int) (key >> 32), 0, sections[(int) key]);
+		}
+		return index;
+	}
+
+	/**
+	 * Switches to sections derived from the base adapter items by the given key
+	 * function. Only the first items are scanned now, the rest is scanned on
+	 * demand while the view is scrolled. Null stops scanning.
+	 */
+	void setSectionKeyFunction(final SectionKeyFunction keyFunction) {
+		stopKeyScanner();
+		mGeneration++;
+		mPendingEdits = null;
+		mIndex = new SectionIndex<T>(mIndex.getColumns());
+		if (keyFunction != null) {
+			mKeyScanner = new SectionKeyScanner(keyFunction) {
+				@Override
+				void onSectionStart(final int firstPosition, final CharSequence title) {
+					mIndex.insert(firstPosition, 0, newSection(firstPosition, title));
+				}
+
+				@Override
+				void onSectionsRemoved(final int fromPosition, final int toPosition) {
+					mIndex.removeRange(fromPosition, toPosition);
+				}
+
+				@Override
+				int getItemCount() {
+					return SectionAdapterHelper.this.getItemCount();
+				}
+
+				@Override
+				void onSectionsChanging(final View parent) {
+					saveAnchor(parent);
+				}
+
+				@Override
+				void onSectionsChanged(final View parent) {
+					notifyChanged();
+					restoreAnchor(parent);
+				}
+			};
+			mKeyScanner.scan(SectionKeyScanner.SCAN_AHEAD);
+		}
+		notifyChanged();
+	}
+
+	private void stopKeyScanner() {
+		if (mKeyScanner != null) {
+			mKeyScanner.cancel();
+			mKeyScanner = null;
+		}
+	}
+
+	/** Updates the sections found by the key scanner after the base adapter changed. */
+	void onItemsChanged() {
+		if (mKeyScanner != null) {
+			mKeyScanner.resume();
+		}
+	}
+
+	/**
+	 * Remembers the first base adapter item shown by the given view, sections
+	 * found above it would otherwise push it down.
+	 */
+	private void saveAnchor(final View parent) {
+		mAnchorPosition = -1;
+		if (!(parent instanceof AdapterView)) {
+			return;
+		}
+		final AdapterView<?> view = (AdapterView<?>) parent;
+		final int first = view.getFirstVisiblePosition() - getHeaderViewsCount(view);
+		for (int i = 0; i < view.getChildCount(); i++) {
+			final int position = toPosition(first + i);
+			if (position >= 0) {
+				mAnchorPosition = position;
+				mAnchorSectionedPosition = first + i;
+				mAnchorTop = view.getChildAt(i).getTop();
+				return;
+			}
+		}
+	}
+
+	/** Scrolls the remembered item back to where it was, if headers were added above it. */
+	private void restoreAnchor(final View parent) {
+		if (mAnchorPosition < 0 || mAnchorPosition >= getItemCount()) {
+			return;
+		}
+		final int sectionedPosition = toSectionedPosition(mAnchorPosition);
+		if (sectionedPosition == mAnchorSectionedPosition) {
+			return;
+		}
+		if (parent instanceof ListView) {
+			final ListView list = (ListView) parent;
+			list.setSelectionFromTop(sectionedPosition + list.getHeaderViewsCount(), mAnchorTop);
+		} else if (parent instanceof AbsListView) {
+			// grids only scroll whole rows into place
+			((AbsListView) parent).setSelection(sectionedPosition);
+		}
+	}
+
+	private static int getHeaderViewsCount(final AdapterView<?> view) {
+		return view instanceof ListView ? ((ListView) view).getHeaderViewsCount() : 0;
+	}
+
+	/** Maps a sectioned position to the base adapter, -1 for headers and fillers. */
+	int toPosition(final int sectionedPosition) {
+		return mIndex.sectionedPositionToPosition(sectionedPosition);
+	}
+
+	int toSectionedPosition(final int position) {
+		return mIndex.positionToSectionedPosition(position);
+	}
+
+	/** Lets the key scanner look ahead of the base adapter item being bound. */
+	void onItemBound(final int position, final View parent) {
+		if (mKeyScanner != null) {
+			mKeyScanner.request(position, parent);
+		}
+	}
+
+	/**
+	 * Returns the id of a header or filler cell of the given section, see
+	 * {@link SectionIndex#getSectionKey(int, boolean, long)}.
+	 */
+	long getCellId(final int section, final int slot, final Adapter baseAdapter) {
+		final int first = mIndex.getFirstItemPosition(section, baseAdapter.getCount());
+		final boolean stableIds = first >= 0 && baseAdapter.hasStableIds();
+		final long key = mIndex.getSectionKey(section, stableIds, stableIds ? baseAdapter.getItemId(first) : 0);
+		return SectionIndex.getCellId(key, slot);
+	}
+
+	/** Appends a section after the existing ones, items appended later join it. */
+	T appendSection(final int firstPosition, final CharSequence title) {
+		final T section = newSection(firstPosition, title);
+		mIndex.add(firstPosition, 0, section);
+		// the new index may have sections after it, so it is inserted there
+		addPendingEdit(new PendingEdit<T>(section, firstPosition, 0));
+		notifyChanged();
+		return section;
+	}
+
+	/** Inserts a single section, only moving the sections after it. */
+	void insertSection(final T section) {
+		mIndex.insert(section.firstPosition, 0, section);
+		addPendingEdit(new PendingEdit<T>(section, section.firstPosition, 0));
+		notifyChanged();
+	}
+
+	/**
+	 * Removes the section at the given index. Throws an IllegalStateException
+	 * while setSectionsAsync() builds new sections, the index would refer to the
+	 * current ones.
+	 */
+	T removeSection(final int section) {
+		if (mPendingEdits != null) {
+			throw new IllegalStateException("Sections are being built, remove the section once they are ready");
+		}
+		final T removed = mIndex.remove(section);
+		notifyChanged();
+		return removed;
+	}
+
+	/**
+	 * Moves the sections after the given base adapter position once delta items
+	 * were inserted there, or -delta items removed, and keeps the first
+	 * positions of the moved sections up to date.
+	 */
+	void shiftItems(final int position, final int delta) {
+		shift(mIndex, position, delta);
+		addPendingEdit(new PendingEdit<T>(null, position, delta));
+		notifyChanged();
+	}
+
+	private static <T extends BaseSection> void shift(final SectionIndex<T> index, final int position, final int delta) {
+		final int from = index.shiftItems(position, delta);
+		for (int i = from; i < index.size(); i++) {
+			index.getSection(i).firstPosition = index.getFirstPosition(i);
+		}
+	}
+
+	private void addPendingEdit(final PendingEdit<T> edit) {
+		if (mPendingEdits != null) {
+			mPendingEdits.add(edit);
+		}
+	}
+
+	/** An inserted section, or items shifted if the section is null. */
+	private static final class PendingEdit<T> {
+		final T section;
+		final int position;
+		final int delta;
+
+		PendingEdit(final T section, final int position, final int delta) {
+			this.section = section;
+			this.position = position;
+			this.delta = delta;
+		}
+	}
+
+	/** Creates a section of the adapter's own section class. */
+	abstract T newSection(int firstPosition, CharSequence title);
+
+	/** Returns the number of base adapter items. */
+	abstract int getItemCount();
+
+	/** Sends the change notification of the adapter. */
+	abstract void notifyChanged();
+}
@@ -0,0 +1,513 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+/**
+ * Position table shared by the sectioned adapters. Every section is one entry
+ * in parallel primitive arrays (first item position, sectioned position of its
+ * header row and section type); header fillers and the fillers padding the
+ * last row of a section are derived from the column count, so lookups are
+ * binary searches and memory only depends on the number of sections.
+ * <p>
+ * Edits other than appends cost O(n) in the number of sections: a move of
+ * the array tails and a recomputation of the header rows after the edited
+ * entry. Both are tight loops over primitive arrays, e.g. some 40us for a
+ * section inserted before 10,000 others on a desktop VM. A Fenwick tree does
+ * not help here, it is indexed by section and inserting a section shifts
+ * every index after it. A balanced tree would make edits O(log n), but it
+ * allocates a node per section and turns the constant time lookups next to
+ * the last one, which is what binding during a scroll does, into tree
+ * descents; lookups outnumber edits by far.
+ * <p>
+ * With one column (lists) a header is a single cell followed by its items.
+ * With more columns the header row holds {@code columns - 1} header fillers
+ * followed by the header cell, and every section but the last is padded with
+ * fillers up to a full row.
+ */
+public class SectionIndex<T> {
+	public static final int CELL_ITEM = 0;
+	public static final int CELL_HEADER = 1;
+	public static final int CELL_HEADER_FILLER = 2;
+	public static final int CELL_FILLER = 3;
+	/** Header height of a section none was stored for, 0 is a valid height. */
+	public static final int HEIGHT_UNKNOWN = -1;
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	// cell ids: sign bit, 43 bits section key, 20 bits slot
+	private static final int SLOT_BITS = 20;
+	private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+	private static final long ITEM_KEY = 1L << 42;
+	private static final long ITEM_KEY_MASK = ITEM_KEY - 1;
+	private static final int RANK_BITS = 10;
+	private static final long RANK_MASK = (1L << RANK_BITS) - 1;
+
+	private int mColumns = 1;
+	private int mSize;
+	/** Number of leading entries whose sectioned positions are up to date. */
+	private int mValidCount;
+	/** Sections found by the last lookups, binds during a scroll land next to them. */
+	private int mSectionCursor;
+	private int mPositionCursor;
+	private int[] mFirstPositions = new int[INITIAL_CAPACITY];
+	private int[] mSectionedPositions = new int[INITIAL_CAPACITY];
+	private int[] mTypes = new int[INITIAL_CAPACITY];
+	/** Header heights cached by the adapter, 0 while unknown. */
+	private int[] mHeaderHeights = new int[INITIAL_CAPACITY];
+	private Object[] mSections = new Object[INITIAL_CAPACITY];
+
+	public SectionIndex() {
+	}
+
+	public SectionIndex(int columns) {
+		mColumns = Math.max(columns, 1);
+	}
+
+	public int getColumns() {
+		return mColumns;
+	}
+
+	/** Changes the column count and recomputes the header row positions. */
+	public void setColumns(int columns) {
+		columns = Math.max(columns, 1);
+		if (columns == mColumns) {
+			return;
+		}
+		mColumns = columns;
+		invalidateFrom(1);
+	}
+
+	public void clear() {
+		for (int i = 0; i < mSize; i++) {
+			mSections[i] = null;
+		}
+		mSize = 0;
+		mValidCount = 0;
+	}
+
+	/**
+	 * Appends a section in amortized O(1): existing entries are neither sorted
+	 * nor moved and only the new header row is computed on the next lookup.
+	 * Sections have to be added in the order of their first positions.
+	 */
+	public void add(int firstPosition, int type, T section) {
+		if (mSize > 0 && firstPosition < mFirstPositions[mSize - 1]) {
+			throw new IllegalArgumentException("Sections must be added in order of their first position");
+		}
+		if (mSize == mFirstPositions.length) {
+			grow();
+		}
+		mFirstPositions[mSize] = firstPosition;
+		mTypes[mSize] = type;
+		mHeaderHeights[mSize] = HEIGHT_UNKNOWN;
+		mSections[mSize] = section;
+		mSize++;
+	}
+
+	/**
+	 * Inserts a section after the sections starting at or before its first
+	 * position and returns its index. This is O(n) in the number of sections:
+	 * the entries after it are moved and their header rows are recomputed on
+	 * the next lookup, once for any number of edits in between.
+	 */
+	public int insert(int firstPosition, int type, T section) {
+		if (mSize == mFirstPositions.length) {
+			grow();
+		}
+		final int index = countNotAbove(mFirstPositions, firstPosition);
+		final int moved = mSize - index;
+		System.arraycopy(mFirstPositions, index, mFirstPositions, index + 1, moved);
+		System.arraycopy(mSectionedPositions, index, mSectionedPositions, index + 1, moved);
+		System.arraycopy(mTypes, index, mTypes, index + 1, moved);
+		System.arraycopy(mHeaderHeights, index, mHeaderHeights, index + 1, moved);
+		System.arraycopy(mSections, index, mSections, index + 1, moved);
+		mFirstPositions[index] = firstPosition;
+		mTypes[index] = type;
+		mHeaderHeights[index] = HEIGHT_UNKNOWN;
+		mSections[index] = section;
+		mSize++;
+		invalidateFrom(index);
+		return index;
+	}
+
+	/**
+	 * Removes the section at the given index and returns it. Like insert(),
+	 * this is O(n) in the number of sections.
+	 */
+	public T remove(int index) {
+		final T section = getSection(index);
+		final int moved = mSize - index - 1;
+		System.arraycopy(mFirstPositions, index + 1, mFirstPositions, index, moved);
+		System.arraycopy(mSectionedPositions, index + 1, mSectionedPositions, index, moved);
+		System.arraycopy(mTypes, index + 1, mTypes, index, moved);
+		System.arraycopy(mHeaderHeights, index + 1, mHeaderHeights, index, moved);
+		System.arraycopy(mSections, index + 1, mSections, index, moved);
+		mSize--;
+		mSections[mSize] = null;
+		invalidateFrom(index);
+		return section;
+	}
+
+	/**
+	 * Moves the sections after fromPosition by delta items, after delta items
+	 * were inserted at fromPosition (or -delta items were removed from there).
+	 * A section starting at fromPosition keeps its first position, so inserted
+	 * items join it; sections starting inside a removed range collapse onto
+	 * fromPosition. Returns the index of the first section that may have
+	 * moved, every section from there on has a new first position.
+	 */
+	public int shiftItems(int fromPosition, int delta) {
+		final int index = countNotAbove(mFirstPositions, fromPosition);
+		if (delta == 0) {
+			return mSize;
+		}
+		for (int i = index; i < mSize; i++) {
+			mFirstPositions[i] = Math.max(fromPosition, mFirstPositions[i] + delta);
+		}
+		// the section holding fromPosition changes its size, so its successor moves
+		invalidateFrom(index);
+		return index;
+	}
+
+	/**
+	 * Removes the sections whose first positions are in the given range, e.g.
+	 * the sections of items that are gone.
+	 */
+	public void removeRange(int fromPosition, int toPosition) {
+		final int from = countNotAbove(mFirstPositions, fromPosition - 1);
+		final int to = countNotAbove(mFirstPositions, toPosition - 1);
+		if (from >= to) {
+			return;
+		}
+		final int moved = mSize - to;
+		System.arraycopy(mFirstPositions, to, mFirstPositions, from, moved);
+		System.arraycopy(mSectionedPositions, to, mSectionedPositions, from, moved);
+		System.arraycopy(mTypes, to, mTypes, from, moved);
+		System.arraycopy(mHeaderHeights, to, mHeaderHeights, from, moved);
+		System.arraycopy(mSections, to, mSections, from, moved);
+		for (int i = mSize - (to - from); i < mSize; i++) {
+			mSections[i] = null;
+		}
+		mSize -= to - from;
+		invalidateFrom(from);
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T getSection(int index) {
+		return (T) mSections[index];
+	}
+
+	public int getType(int index) {
+		return mTypes[index];
+	}
+
+	public int getFirstPosition(int index) {
+		return mFirstPositions[index];
+	}
+
+	/** Returns the cached header height of the section, or {@link #HEIGHT_UNKNOWN} if none was stored. */
+	public int getHeaderHeight(int index) {
+		return mHeaderHeights[index];
+	}
+
+	/**
+	 * Caches the header height of the section. It moves along with the section
+	 * on edits, so header rows can be sized without measuring their views.
+	 */
+	public void setHeaderHeight(int index, int height) {
+		mHeaderHeights[index] = height;
+	}
+
+	/** Forgets all cached header heights. */
+	public void clearHeaderHeights() {
+		for (int i = 0; i < mSize; i++) {
+			mHeaderHeights[i] = HEIGHT_UNKNOWN;
+		}
+	}
+
+	/** Returns the sectioned position where the header row of the section starts. */
+	public int getSectionedPosition(int index) {
+		ensureSectionedPositions();
+		return mSectionedPositions[index];
+	}
+
+	/** Returns the sectioned position of the header cell of the section. */
+	public int getHeaderPosition(int index) {
+		ensureSectionedPositions();
+		return mSectionedPositions[index] + mColumns - 1;
+	}
+
+	/**
+	 * Returns the index of the section whose rows contain the given sectioned
+	 * position, or -1 for positions before the first section.
+	 */
+	public int findSection(int sectionedPosition) {
+		ensureSectionedPositions();
+		return mSectionCursor = search(mSectionedPositions, sectionedPosition, mSectionCursor);
+	}
+
+	/**
+	 * Returns the index of the last section whose header cell is at or before
+	 * the given sectioned position, or -1 if there is none. This is the section
+	 * to pin while the position is the first visible one.
+	 */
+	public int findSectionForHeader(int sectionedPosition) {
+		int section = findSection(sectionedPosition);
+		if (section >= 0 && getHeaderPosition(section) > sectionedPosition) {
+			section--;
+		}
+		return section;
+	}
+
+	/**
+	 * Returns the header cell of the given section, clamped to the existing
+	 * sections, or -1 if there are none. This is what
+	 * SectionIndexer.getPositionForSection() answers.
+	 */
+	public int getPositionForSection(int index) {
+		if (mSize == 0) {
+			return -1;
+		}
+		return getHeaderPosition(Math.max(0, Math.min(index, mSize - 1)));
+	}
+
+	/**
+	 * Returns the section shown for the given sectioned position, the first
+	 * one for positions before it. This is what
+	 * SectionIndexer.getSectionForPosition() answers.
+	 */
+	public int getSectionForPosition(int sectionedPosition) {
+		return Math.max(0, findSectionForHeader(sectionedPosition));
+	}
+
+	/**
+	 * Returns the index of the section holding the base adapter item at the
+	 * given position, or -1 for items before the first section.
+	 */
+	public int findSectionForPosition(int position) {
+		return mPositionCursor = search(mFirstPositions, position, mPositionCursor);
+	}
+
+	/** Classifies a sectioned position as one of the CELL_* kinds. */
+	public int getCellType(int sectionedPosition) {
+		final int section = findSection(sectionedPosition);
+		if (section < 0) {
+			return CELL_ITEM;
+		}
+		final int offset = sectionedPosition - mSectionedPositions[section];
+		if (offset < mColumns - 1) {
+			return CELL_HEADER_FILLER;
+		}
+		if (offset == mColumns - 1) {
+			return CELL_HEADER;
+		}
+		// the last section is never padded
+		if (section == mSize - 1
+				|| offset - mColumns < mFirstPositions[section + 1] - mFirstPositions[section]) {
+			return CELL_ITEM;
+		}
+		return CELL_FILLER;
+	}
+
+	public boolean isItem(int sectionedPosition) {
+		return getCellType(sectionedPosition) == CELL_ITEM;
+	}
+
+	public int positionToSectionedPosition(int position) {
+		ensureSectionedPositions();
+		final int section = findSectionForPosition(position);
+		if (section < 0) {
+			return position;
+		}
+		return mSectionedPositions[section] + mColumns + position - mFirstPositions[section];
+	}
+
+	/**
+	 * Maps a sectioned position back to the base adapter, or returns -1 for
+	 * headers and fillers.
+	 */
+	public int sectionedPositionToPosition(int sectionedPosition) {
+		if (!isItem(sectionedPosition)) {
+			return -1;
+		}
+		final int section = findSection(sectionedPosition);
+		if (section < 0) {
+			return sectionedPosition;
+		}
+		return mFirstPositions[section] + sectionedPosition - mSectionedPositions[section] - mColumns;
+	}
+
+	/** Number of base adapter items placed before the given header or filler position. */
+	public int getItemsBefore(int sectionedPosition) {
+		final int section = findSection(sectionedPosition);
+		if (section < 0) {
+			return sectionedPosition;
+		}
+		return getCellType(sectionedPosition) == CELL_FILLER
+				? mFirstPositions[section + 1]
+				: mFirstPositions[section];
+	}
+
+	/** Number of header, header filler and filler cells added to the base items. */
+	public int getExtraCount() {
+		ensureSectionedPositions();
+		final int last = mSize - 1;
+		return last < 0 ? 0 : mSectionedPositions[last] + mColumns - mFirstPositions[last];
+	}
+
+	/**
+	 * Returns the slot of a header or filler cell in its section, which tells
+	 * the cells of one section apart in their ids: the header row takes the
+	 * slots up to the column count, fillers padding the last row are numbered
+	 * by their column and any other cell by its offset from the header row.
+	 */
+	public int getCellSlot(int sectionedPosition) {
+		final int section = findSection(sectionedPosition);
+		if (section < 0) {
+			return sectionedPosition;
+		}
+		final int offset = sectionedPosition - mSectionedPositions[section];
+		if (getCellType(sectionedPosition) == CELL_FILLER) {
+			return mColumns + offset % mColumns;
+		}
+		return offset < mColumns ? offset : mColumns + offset;
+	}
+
+	/**
+	 * Returns the position of the first item of the section, or -1 if the
+	 * section is empty. The item count of the base adapter bounds the last
+	 * section.
+	 */
+	public int getFirstItemPosition(int index, int itemCount) {
+		final int firstPosition = mFirstPositions[index];
+		final int end = index == mSize - 1 ? itemCount : mFirstPositions[index + 1];
+		return firstPosition < end ? firstPosition : -1;
+	}
+
+	/**
+	 * Returns the key the ids of the header and fillers of a section are made
+	 * of. With a stable id of the first item of the section, as resolved by
+	 * the adapter, it is taken from that id, so it stays the same when
+	 * sections or items are added before it. Otherwise, and for empty
+	 * sections, it is the first position along with the number of empty
+	 * sections before it at the same position.
+	 */
+	public long getSectionKey(int index, boolean stableIds, long firstItemId) {
+		if (stableIds) {
+			return ITEM_KEY | (firstItemId & ITEM_KEY_MASK);
+		}
+		final int firstPosition = mFirstPositions[index];
+		int rank = 0;
+		while (index - rank > 0 && mFirstPositions[index - rank - 1] == firstPosition) {
+			rank++;
+		}
+		return ((long) firstPosition << RANK_BITS) | (rank & RANK_MASK);
+	}
+
+	/**
+	 * Returns the id of a header or filler cell from the key of its section
+	 * and its slot. These ids are negative and never -1, so they clash
+	 * neither with the non-negative ids of the base adapter nor with the
+	 * invalid row id.
+	 */
+	public static long getCellId(long sectionKey, int slot) {
+		return Long.MIN_VALUE | (sectionKey << SLOT_BITS) | ((slot + 1) & SLOT_MASK);
+	}
+
+	/** Copies the sections into the given array, which has to hold at least size() entries. */
+	public T[] toArray(T[] array) {
+		System.arraycopy(mSections, 0, array, 0, mSize);
+		return array;
+	}
+
+	private void invalidateFrom(int index) {
+		mValidCount = Math.min(mValidCount, index);
+	}
+
+	/** Recomputes the header row positions invalidated by edits since the last lookup. */
+	private void ensureSectionedPositions() {
+		for (int i = mValidCount; i < mSize; i++) {
+			mSectionedPositions[i] = i == 0 ? mFirstPositions[0] : nextSectionedPosition(i - 1, mFirstPositions[i]);
+		}
+		mValidCount = mSize;
+	}
+
+	private int nextSectionedPosition(int previous, int firstPosition) {
+		final int itemsCount = firstPosition - mFirstPositions[previous];
+		final int rowsCount = (itemsCount + mColumns - 1) / mColumns;
+		return mSectionedPositions[previous] + mColumns + rowsCount * mColumns;
+	}
+
+	private void grow() {
+		final int capacity = mFirstPositions.length * 2;
+		mFirstPositions = copyOf(mFirstPositions, capacity);
+		mSectionedPositions = copyOf(mSectionedPositions, capacity);
+		mTypes = copyOf(mTypes, capacity);
+		mHeaderHeights = copyOf(mHeaderHeights, capacity);
+		final Object[] sections = new Object[capacity];
+		System.arraycopy(mSections, 0, sections, 0, mSize);
+		mSections = sections;
+	}
+
+	private static int[] copyOf(int[] array, int capacity) {
+		final int[] copy = new int[capacity];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+
+	/**
+	 * Returns the index of the last of the first mSize entries of the sorted
+	 * array which is less than or equal to the given value, or -1. The entry
+	 * at the hint and its neighbours are checked first, so sequential lookups
+	 * take constant time and only jumps fall back to the binary search.
+	 */
+	private int search(int[] sorted, int value, int hint) {
+		if (hint >= 0 && hint < mSize && sorted[hint] <= value) {
+			if (hint + 1 == mSize || value < sorted[hint + 1]) {
+				return hint;
+			}
+			if (hint + 2 == mSize || value < sorted[hint + 2]) {
+				return hint + 1;
+			}
+		} else if (hint > 0 && hint <= mSize && sorted[hint - 1] <= value) {
+			return hint - 1;
+		}
+		return countNotAbove(sorted, value) - 1;
+	}
+
+	/**
+	 * Returns the number of the first mSize entries of the sorted array which
+	 * are less than or equal to the given value.
+	 */
+	private int countNotAbove(int[] sorted, int value) {
+		int low = 0;
+		int high = mSize;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (sorted[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+/**
+ * Builds a section index on a worker thread and hands it to the main thread,
+ * where the adapter swaps it in at once. Until then the adapter keeps serving
+ * its previous index. Builds run one at a time on a single background
+ * priority thread, so they don't compete with the UI thread for a core, and a
+ * failed build is handed to the main thread as well.
+ */
+abstract class SectionIndexLoader<T> implements Runnable {
+	private static final Executor sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(final Runnable r) {
+			final Thread thread = new Thread(r, "SectionIndexLoader");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	private static Handler sMainHandler;
+
+	private SectionIndex<T> mIndex;
+	private RuntimeException mFailure;
+
+	void start() {
+		if (sMainHandler == null) {
+			sMainHandler = new Handler(Looper.getMainLooper());
+		}
+		sExecutor.execute(this);
+	}
+
+	@Override
+	public void run() {
+		Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+		try {
+			final SectionIndex<T> index = build();
+			// compute the header rows here instead of on the first lookup
+			index.getExtraCount();
+			mIndex = index;
+		} catch (final RuntimeException e) {
+			mFailure = e;
+		}
+		sMainHandler.post(new Runnable() {
+			@Override
+			public void run() {
+				if (mFailure != null) {
+					fail(mFailure);
+				} else {
+					publish(mIndex);
+				}
+			}
+		});
+	}
+
+	/** Builds the new index, called on the worker thread. */
+	abstract SectionIndex<T> build();
+
+	/** Swaps the new index in, called on the main thread. */
+	abstract void publish(SectionIndex<T> index);
+
+	/** Reports an exception thrown by {@link #build()}, called on the main thread. */
+	abstract void fail(RuntimeException e);
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+/**
+ * Derives sections from the items of the base adapter. Consecutive items with
+ * equal keys (for example the day bucket of a row) share a section, which the
+ * sectioned adapters discover lazily while the list is scrolled.
+ */
+public interface SectionKeyFunction {
+	/** Returns the section key of the base adapter item at the given position. */
+	Object getSectionKey(int position);
+
+	/** Returns the header title of the section with the given key. */
+	CharSequence getSectionTitle(Object key);
+}
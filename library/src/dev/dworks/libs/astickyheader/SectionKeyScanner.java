@@ -0,0 +1,232 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+import android.view.View;
+
+/**
+ * Incremental scanner behind {@link SectionKeyFunction}. Items are scanned once,
+ * in order, and only a little ahead of the items being bound; everything
+ * scanned so far is kept in the adapter's section index. Scans triggered from
+ * getView() are posted, so the adapter count never changes during a layout
+ * pass, and each posted run only scans chunks of {@link #SCAN_CHUNK} items.
+ * <p>
+ * An item bound far past the scanned ones, e.g. after a jump with the fast
+ * scroller, is scanned out of order: a window of items around it gets its
+ * sections at once, so it shows under its own header, while the items before
+ * it keep being scanned in chunks until they reach the window.
+ */
+abstract class SectionKeyScanner implements Runnable {
+	/** Number of items scanned ahead of the item being bound. */
+	static final int SCAN_AHEAD = 256;
+	/** Most items scanned by one posted run, longer scans take several frames. */
+	static final int SCAN_CHUNK = 2048;
+
+	private final SectionKeyFunction mKeyFunction;
+	/** Every item before this position is scanned. */
+	private int mScanned;
+	private Object mLastKey;
+	private int mTarget;
+	/** Items scanned out of order, from the window start up to its end, none if the start is -1. */
+	private int mWindowStart = -1;
+	private int mWindowEnd;
+	private int mWindowTarget;
+	private Object mWindowLastKey;
+	/** Whether the section at the window start was only added to show the title of its items. */
+	private boolean mWindowProvisional;
+	/** Position bound past the scanned items that opens a new window, or -1. */
+	private int mJump = -1;
+	private View mParent;
+	private boolean mPosted;
+	private boolean mCancelled;
+
+	SectionKeyScanner(SectionKeyFunction keyFunction) {
+		mKeyFunction = keyFunction;
+	}
+
+	/** Scans the items up to the given position in order, returns true if sections changed. */
+	boolean scan(int limit) {
+		limit = Math.min(limit, getItemCount());
+		boolean changed = false;
+		while (mScanned < limit) {
+			if (mScanned == mWindowStart) {
+				changed |= mergeWindow();
+				continue;
+			}
+			final int position = mScanned++;
+			final Object key = mKeyFunction.getSectionKey(position);
+			if (position == 0 || !equal(key, mLastKey)) {
+				onSectionStart(position, mKeyFunction.getSectionTitle(key));
+				changed = true;
+			}
+			mLastKey = key;
+		}
+		return changed;
+	}
+
+	/** Scans the window up to the given position, returns true if a section was found. */
+	private boolean scanWindow(int limit) {
+		limit = Math.min(limit, getItemCount());
+		boolean changed = false;
+		while (mWindowEnd < limit) {
+			final int position = mWindowEnd++;
+			final Object key = mKeyFunction.getSectionKey(position);
+			if (!equal(key, mWindowLastKey)) {
+				onSectionStart(position, mKeyFunction.getSectionTitle(key));
+				changed = true;
+			}
+			mWindowLastKey = key;
+		}
+		return changed;
+	}
+
+	/**
+	 * Starts scanning out of order at the given position, which has to be past
+	 * the scanned items. A previous window is dropped.
+	 */
+	private void openWindow(int position) {
+		dropWindow();
+		final Object key = mKeyFunction.getSectionKey(position);
+		// the section of the first item may start before it, then it is provisional
+		mWindowProvisional = equal(key, mKeyFunction.getSectionKey(position - 1));
+		onSectionStart(position, mKeyFunction.getSectionTitle(key));
+		mWindowStart = position;
+		mWindowEnd = position + 1;
+		mWindowLastKey = key;
+	}
+
+	/** Joins the window once the items before it are scanned, returns true if sections changed. */
+	private boolean mergeWindow() {
+		if (mWindowProvisional) {
+			// the items before had the same key, so their section goes on
+			onSectionsRemoved(mWindowStart, mWindowStart + 1);
+		}
+		mScanned = mWindowEnd;
+		mLastKey = mWindowLastKey;
+		mTarget = Math.max(mTarget, mWindowTarget);
+		mWindowStart = -1;
+		return mWindowProvisional;
+	}
+
+	private void dropWindow() {
+		if (mWindowStart >= 0) {
+			onSectionsRemoved(mWindowStart, mWindowEnd);
+			mWindowStart = -1;
+		}
+	}
+
+	/**
+	 * Goes on from the scanned items after the base adapter changed, instead
+	 * of scanning everything again. Items are assumed to have been appended or
+	 * removed at the end; after other changes the key function has to be set
+	 * again. Sections of items that are gone are dropped.
+	 */
+	void resume() {
+		final int count = getItemCount();
+		dropWindow();
+		mJump = -1;
+		if (mScanned > count) {
+			onSectionsRemoved(count, Integer.MAX_VALUE);
+			mScanned = count;
+		}
+		mLastKey = mScanned > 0 ? mKeyFunction.getSectionKey(mScanned - 1) : null;
+		scan(SCAN_AHEAD);
+	}
+
+	/** Makes sure the items following the bound base adapter position get scanned soon. */
+	void request(int position, View parent) {
+		if (parent != null) {
+			mParent = parent;
+		}
+		final int target = position + SCAN_AHEAD;
+		if (mWindowStart >= 0 && position >= mWindowStart && position < mWindowEnd + SCAN_CHUNK) {
+			if (target <= mWindowEnd) {
+				return;
+			}
+			mWindowTarget = Math.max(mWindowTarget, target);
+		} else if (position >= mScanned + SCAN_CHUNK) {
+			mJump = position;
+		} else {
+			if (target <= mScanned || mScanned >= getItemCount()) {
+				return;
+			}
+			mTarget = Math.max(mTarget, target);
+		}
+		post();
+	}
+
+	private void post() {
+		if (!mPosted && mParent != null) {
+			mPosted = true;
+			mParent.post(this);
+		}
+	}
+
+	void cancel() {
+		mCancelled = true;
+	}
+
+	@Override
+	public void run() {
+		mPosted = false;
+		if (mCancelled) {
+			return;
+		}
+		onSectionsChanging(mParent);
+		boolean changed = false;
+		if (mJump >= 0) {
+			// start a little before, the items above the bound one are shown too
+			openWindow(Math.max(mScanned + 1, mJump - SCAN_AHEAD));
+			mWindowTarget = mJump + SCAN_AHEAD;
+			mJump = -1;
+			changed = true;
+		}
+		// a chunk of the window and one of the items before it
+		if (mWindowStart >= 0) {
+			changed |= scanWindow(Math.min(mWindowTarget, mWindowEnd + SCAN_CHUNK));
+		}
+		final int target = mWindowStart >= 0 ? mWindowStart + 1 : mTarget;
+		changed |= scan(Math.min(target, mScanned + SCAN_CHUNK));
+		if (changed) {
+			onSectionsChanged(mParent);
+		}
+
+		final int count = getItemCount();
+		if ((mWindowStart >= 0 && (mScanned < mWindowStart || mWindowEnd < Math.min(mWindowTarget, count)))
+				|| mScanned < Math.min(mTarget, count)) {
+			post();
+		}
+	}
+
+	private static boolean equal(Object key, Object other) {
+		return key == null ? other == null : key.equals(other);
+	}
+
+	/** Called for the first item of every section found. */
+	abstract void onSectionStart(int firstPosition, CharSequence title);
+
+	/** Called to drop the sections starting in the given range of positions. */
+	abstract void onSectionsRemoved(int fromPosition, int toPosition);
+
+	abstract int getItemCount();
+
+	/** Called before a posted scan, which may add sections above the shown items. */
+	abstract void onSectionsChanging(View parent);
+
+	/** Called after a posted scan changed the sections. */
+	abstract void onSectionsChanged(View parent);
+}
@@ -16,9 +16,6 @@
 
 package dev.dworks.libs.astickyheader;
 
-import java.util.Arrays;
-import java.util.Comparator;
-
 import android.content.Context;
 import android.database.DataSetObserver;
 import android.util.SparseArray;
@@ -30,28 +27,60 @@ import android.widget.BaseAdapter;
 import android.widget.GridView;
 import android.widget.ListAdapter;
 import android.widget.ListView;
+import android.widget.SectionIndexer;
+import dev.dworks.libs.astickyheader.ui.GridMetrics;
 import dev.dworks.libs.astickyheader.ui.PinnedSectionGridView;
+import dev.dworks.libs.astickyheader.ui.PinnedSectionGridView.FixedRowHeightAdapter;
+import dev.dworks.libs.astickyheader.ui.PinnedSectionGridView.GridMetricsListener;
 import dev.dworks.libs.astickyheader.ui.PinnedSectionGridView.PinnedSectionGridAdapter;
 
-public abstract class SectionedGridAdapter extends BaseAdapter implements PinnedSectionGridAdapter {
+public abstract class SectionedGridAdapter extends BaseAdapter implements PinnedSectionGridAdapter, GridMetricsListener,
+		FixedRowHeightAdapter, SectionIndexer {
 	protected static final int TYPE_NORMAL_CELL = 0;
 	protected static final int TYPE_FILLER = -1;
 	protected static final int TYPE_HEADER = -2;
 	protected static final int TYPE_HEADER_FILLER = -3;
 	private boolean mValid = true;
 	private ListAdapter mBaseAdapter;
-	private SparseArray<Section> mSections = new SparseArray<Section>();
+	private final SectionAdapterHelper<Section> mSections = new SectionAdapterHelper<Section>() {
+		@Override
+		Section newSection(final int firstPosition, final CharSequence title) {
+			return new Section(firstPosition, title);
+		}
+
+		@Override
+		int getItemCount() {
+			return mBaseAdapter.getCount();
+		}
+
+		@Override
+		void notifyChanged() {
+			notifyDataSetChanged();
+		}
+
+		// wide items move the cells, so map through the cell layout
+		@Override
+		int toPosition(final int sectionedPosition) {
+			return sectionedPositionToPosition(sectionedPosition);
+		}
+
+		@Override
+		int toSectionedPosition(final int position) {
+			return positionToSectionedPosition(position);
+		}
+	};
 	private Context mContext;
-	private int mNumColumns;
-	private int mWidth;
-	private int mColumnWidth;
-	private int mHorizontalSpacing;
-	private int mStrechMode;
-	private int requestedColumnWidth;
-	private int requestedHorizontalSpacing;
 	private GridView mGridView;
 	private int mHeaderHeight;
 	private int mNormalCellHeight;
+	private boolean mSpanSizesEnabled;
+	// cell layout of the items when span sizes are enabled
+	private SectionIndex<Section> mCellSections;
+	private int[] mItemCells;
+	private int mItemCount;
+	private int mCellCount;
+	/** Summed header heights of the leading sections, built on first use after a change. */
+	private int[] mHeaderHeightSums;
 
 	public SectionedGridAdapter(final Context context, final BaseAdapter baseAdapter) {
 		mHeaderHeight = getHeaderHeight();
@@ -63,6 +92,8 @@ public abstract class SectionedGridAdapter extends BaseAdapter implements Pinned
 			@Override
 			public void onChanged() {
 				mValid = !mBaseAdapter.isEmpty();
+				mSections.getIndex().clearHeaderHeights();
+				mSections.onItemsChanged();
 				notifyDataSetChanged();
 			}
 
@@ -79,155 +110,254 @@ public abstract class SectionedGridAdapter extends BaseAdapter implements Pinned
 			throw new IllegalArgumentException("Does your grid view extends PinnedSectionGridView?");
 		}
 		mGridView = gridView;
-		mStrechMode = gridView.getStretchMode();
-		mWidth = gridView.getWidth() - (mGridView.getPaddingLeft() + mGridView.getPaddingRight());
-		mNumColumns = ((PinnedSectionGridView) gridView).getNumColumns();
-		requestedColumnWidth = ((PinnedSectionGridView) gridView).getColumnWidth();
-		requestedHorizontalSpacing = ((PinnedSectionGridView) gridView).getHorizontalSpacing();
+		setColumns(getGridMetrics().getNumColumns());
+	}
+
+	private GridMetrics getGridMetrics() {
+		return ((PinnedSectionGridView) mGridView).getGridMetrics();
 	}
 
 	private int getHeaderSize() {
-		if (mWidth != mGridView.getWidth()) {
-			mStrechMode = mGridView.getStretchMode();
-			mWidth = mGridView.getWidth() - (mGridView.getPaddingLeft() + mGridView.getPaddingRight());
-			mNumColumns = ((PinnedSectionGridView) mGridView).getNumColumns();
-			requestedColumnWidth = ((PinnedSectionGridView) mGridView).getColumnWidth();
-			requestedHorizontalSpacing = ((PinnedSectionGridView) mGridView).getHorizontalSpacing();
+		return getGridMetrics().getHeaderWidth();
+	}
+
+	@Override
+	public void onGridMetricsChanged(final GridMetrics metrics) {
+		if (metrics.getNumColumns() == mSections.getIndex().getColumns()) {
+			return; // only the cell sizes changed, the grid binds the cells again
 		}
+		setColumns(metrics.getNumColumns());
 
-		final int spaceLeftOver = mWidth - mNumColumns * requestedColumnWidth - (mNumColumns - 1)
-				* requestedHorizontalSpacing;
-		switch (mStrechMode) {
-		case GridView.NO_STRETCH: // Nobody stretches
-			mWidth -= spaceLeftOver;
-			mColumnWidth = requestedColumnWidth;
-			mHorizontalSpacing = requestedHorizontalSpacing;
-			break;
-
-		case GridView.STRETCH_COLUMN_WIDTH:
-			mColumnWidth = requestedColumnWidth + spaceLeftOver / mNumColumns;
-			mHorizontalSpacing = requestedHorizontalSpacing;
-			break;
-
-		case GridView.STRETCH_SPACING:
-			mColumnWidth = requestedColumnWidth;
-			if (mNumColumns > 1) {
-				mHorizontalSpacing = requestedHorizontalSpacing + spaceLeftOver / (mNumColumns - 1);
-			} else {
-				mHorizontalSpacing = requestedHorizontalSpacing + spaceLeftOver;
-			}
-			break;
+		// the header rows and fillers moved
+		notifyDataSetChanged();
+	}
 
-		case GridView.STRETCH_SPACING_UNIFORM:
-			mColumnWidth = requestedColumnWidth;
-			mHorizontalSpacing = requestedHorizontalSpacing;
-			mWidth = mWidth - spaceLeftOver + 2 * mHorizontalSpacing;
-			break;
-		}
-		return mWidth + (mNumColumns - 1) * (mColumnWidth + mHorizontalSpacing);
+	/** Sets the columns of the sections, the span layout is built for the old ones. */
+	private void setColumns(final int columns) {
+		mSections.setColumns(columns);
+		mCellSections = null;
 	}
 
 	public void setSections(final Section[] sections) {
-		mSections.clear();
+		mSections.setSections(sections);
+	}
 
-		Arrays.sort(sections, new Comparator<Section>() {
-			@Override
-			public int compare(final Section o, final Section o1) {
-				return o.firstPosition == o1.firstPosition ? 0 : o.firstPosition < o1.firstPosition ? -1 : 1;
-			}
-		});
+	/**
+	 * Sorts the sections and builds their index on a worker thread, the
+	 * current sections are shown until it is swapped in. The array is copied
+	 * first, so it may be reused once this returns.
+	 */
+	public void setSectionsAsync(final Section[] sections, final OnSectionsReadyListener listener) {
+		mSections.setSectionsAsync(sections, listener);
+	}
 
-		int offset = 0; // offset positions for the headers we're adding
-		for (int i = 0; i < sections.length; i++) {
-			final Section section = sections[i];
-			Section sectionAdd;
-
-			for (int j = 0; j < mNumColumns - 1; j++) {
-				sectionAdd = new Section(section.firstPosition, section.title);
-				sectionAdd.type = TYPE_HEADER_FILLER;
-				sectionAdd.sectionedPosition = sectionAdd.firstPosition + offset;
-				mSections.append(sectionAdd.sectionedPosition, sectionAdd);
-				++offset;
-			}
+	/**
+	 * Switches to sections derived from the base adapter items by the given key
+	 * function, scanned on demand while the grid is scrolled. Pass null to stop.
+	 */
+	public void setSectionKeyFunction(final SectionKeyFunction keyFunction) {
+		mSections.setSectionKeyFunction(keyFunction);
+	}
 
-			sectionAdd = new Section(section.firstPosition, section.title);
-			sectionAdd.type = TYPE_HEADER;
-			sectionAdd.sectionedPosition = sectionAdd.firstPosition + offset;
-			mSections.append(sectionAdd.sectionedPosition, sectionAdd);
-			++offset;
-
-			if (i + 1 < sections.length) {
-				final int nextPos = sections[i + 1].firstPosition;
-				final int itemsCount = nextPos - section.firstPosition;
-				final int dummyCount = mNumColumns - itemsCount % mNumColumns;
-				if (mNumColumns != dummyCount) {
-					for (int j = 0; j < dummyCount; j++) {
-						sectionAdd = new Section(section.firstPosition, section.title);
-						sectionAdd.type = TYPE_FILLER;
-						sectionAdd.sectionedPosition = nextPos + offset;
-						mSections.append(sectionAdd.sectionedPosition, sectionAdd);
-						++offset;
-					}
-				}
-			}
-		}
+	/** Appends a section after the existing ones, items appended later join it. */
+	public Section appendSection(final int firstPosition, final CharSequence title) {
+		return mSections.appendSection(firstPosition, title);
+	}
 
-		notifyDataSetChanged();
+	/** Inserts a single section without rebuilding the others. */
+	public void insertSection(final Section section) {
+		mSections.insertSection(section);
+	}
+
+	/**
+	 * Removes the section at the given index, as returned by getSectionForPosition().
+	 * Throws an IllegalStateException while setSectionsAsync() is building sections.
+	 */
+	public Section removeSection(final int section) {
+		return mSections.removeSection(section);
+	}
+
+	/**
+	 * Moves the sections after the given base adapter position once delta items
+	 * were inserted there, or -delta items removed. Call it once the items of
+	 * the base adapter were changed.
+	 */
+	public void shiftItems(final int position, final int delta) {
+		mSections.shiftItems(position, delta);
 	}
 
 	public int positionToSectionedPosition(final int position) {
-		int offset = 0;
-		for (int i = 0; i < mSections.size(); i++) {
-			if (mSections.valueAt(i).firstPosition > position) {
-				break;
-			}
-			++offset;
+		if (mSpanSizesEnabled) {
+			return getIndex().positionToSectionedPosition(mItemCells[position]);
 		}
-		return position + offset;
+		return mSections.getIndex().positionToSectionedPosition(position);
 	}
 
 	public int sectionedPositionToPosition(final int sectionedPosition) {
-		if (isSectionHeaderPosition(sectionedPosition)) {
+		final int cell = getIndex().sectionedPositionToPosition(sectionedPosition);
+		if (cell < 0) {
 			return ListView.INVALID_POSITION;
 		}
+		return mSpanSizesEnabled ? findItemAtCell(cell) : cell;
+	}
 
-		int offset = 0;
-		for (int i = 0; i < mSections.size(); i++) {
-			if (mSections.valueAt(i).sectionedPosition > sectionedPosition) {
-				break;
+	/** Returns true for headers and all kinds of fillers, i.e. every position that is not a base item. */
+	public boolean isSectionHeaderPosition(final int position) {
+		return sectionedPositionToPosition(position) == ListView.INVALID_POSITION;
+	}
+
+	/**
+	 * Lets items span several columns as returned by {@link #getSpanSize(int)}.
+	 * The cells are then laid out again after every change, which asks for the
+	 * span size of every item, so leave it off for grids without wide items.
+	 * <p>
+	 * A wide item is drawn over the cells it covers, which stay in the grid as
+	 * invisible fillers. GridView takes the height of a row from its tallest
+	 * child, the covered fillers included; they get the normal cell height,
+	 * like every item, so a row stays as tall as its items.
+	 */
+	public void setSpanSizesEnabled(final boolean enabled) {
+		mSpanSizesEnabled = enabled;
+		notifyDataSetChanged();
+	}
+
+	/**
+	 * Returns the number of columns the base adapter item at the given position
+	 * spans. An item which does not fit into the rest of its row starts the
+	 * next one, the cells it leaves empty become fillers.
+	 */
+	protected int getSpanSize(final int position) {
+		return 1;
+	}
+
+	@Override
+	public void notifyDataSetChanged() {
+		// the span layout follows the items, the sections and the columns
+		mCellSections = null;
+		mHeaderHeightSums = null;
+		super.notifyDataSetChanged();
+	}
+
+	@Override
+	public void notifyDataSetInvalidated() {
+		mCellSections = null;
+		mHeaderHeightSums = null;
+		super.notifyDataSetInvalidated();
+	}
+
+	/**
+	 * Returns the index the positions are looked up in. Without span sizes its
+	 * positions are those of the base adapter items, with them it is a copy
+	 * whose positions count cells, built on first use after a change.
+	 */
+	private SectionIndex<Section> getIndex() {
+		if (!mSpanSizesEnabled) {
+			return mSections.getIndex();
+		}
+		if (mCellSections == null) {
+			buildCellSections();
+		}
+		return mCellSections;
+	}
+
+	private void buildCellSections() {
+		final int columns = mSections.getIndex().getColumns();
+		final int count = mBaseAdapter.getCount();
+		if (mItemCells == null || mItemCells.length < count) {
+			mItemCells = new int[count];
+		}
+		final SectionIndex<Section> cells = new SectionIndex<Section>(columns);
+		int section = 0;
+		int cell = 0;
+		int column = 0;
+		for (int position = 0; position < count; position++) {
+			while (section < mSections.getIndex().size() && mSections.getIndex().getFirstPosition(section) <= position) {
+				cells.add(cell, mSections.getIndex().getType(section), mSections.getIndex().getSection(section));
+				section++;
+				column = 0; // sections start a new row
+			}
+			final int span = Math.max(1, Math.min(getSpanSize(position), columns));
+			if (column + span > columns) {
+				// does not fit, fill up the row
+				cell += columns - column;
+				column = 0;
 			}
-			--offset;
+			mItemCells[position] = cell;
+			cell += span;
+			column = (column + span) % columns;
 		}
-		return sectionedPosition + offset;
+		for (; section < mSections.getIndex().size(); section++) {
+			cells.add(cell, mSections.getIndex().getType(section), mSections.getIndex().getSection(section));
+		}
+		mItemCount = count;
+		mCellCount = cell;
+		mCellSections = cells;
 	}
 
-	public boolean isSectionHeaderPosition(final int position) {
-		return mSections.get(position) != null;
+	/** Returns the base adapter item starting at the given cell, or INVALID_POSITION for fillers. */
+	private int findItemAtCell(final int cell) {
+		int low = 0;
+		int high = mItemCount - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			if (mItemCells[mid] < cell) {
+				low = mid + 1;
+			} else if (mItemCells[mid] > cell) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return ListView.INVALID_POSITION;
+	}
+
+	/** Maps the cell kinds of the section index to the view types of this adapter. */
+	private int getSectionCellType(final int position) {
+		if (mSpanSizesEnabled && isSectionHeaderPosition(position)
+				&& getIndex().getCellType(position) == SectionIndex.CELL_ITEM) {
+			return TYPE_FILLER; // covered by a wide item or left empty by one
+		}
+		switch (getIndex().getCellType(position)) {
+		case SectionIndex.CELL_HEADER:
+			return TYPE_HEADER;
+		case SectionIndex.CELL_HEADER_FILLER:
+			return TYPE_HEADER_FILLER;
+		case SectionIndex.CELL_FILLER:
+			return TYPE_FILLER;
+		default:
+			return TYPE_NORMAL_CELL;
+		}
 	}
 
 	@Override
 	public int getCount() {
-		return mValid ? mBaseAdapter.getCount() + mSections.size() : 0;
+		if (!mValid) {
+			return 0;
+		}
+		final SectionIndex<Section> index = getIndex();
+		return (mSpanSizesEnabled ? mCellCount : mBaseAdapter.getCount()) + index.getExtraCount();
 	}
 
 	@Override
 	public Object getItem(final int position) {
-		return isSectionHeaderPosition(position) ? mSections.get(position) : mBaseAdapter
+		return isSectionHeaderPosition(position) ? getIndex().getSection(getIndex().findSection(position)) : mBaseAdapter
 				.getItem(sectionedPositionToPosition(position));
 	}
 
 	@Override
 	public long getItemId(final int position) {
-		return isSectionHeaderPosition(position) ? Integer.MAX_VALUE - mSections.indexOfKey(position) : mBaseAdapter
-				.getItemId(sectionedPositionToPosition(position));
+		if (!isSectionHeaderPosition(position)) {
+			return mBaseAdapter.getItemId(sectionedPositionToPosition(position));
+		}
+		// the cell index has the same sections, but counts cells instead of items
+		return mSections.getCellId(getIndex().findSection(position), getIndex().getCellSlot(position), mBaseAdapter);
 	}
 
 	@Override
 	public final int getItemViewType(final int position) {
 		if (!isSectionHeaderPosition(position))
 			return getItemViewTypeExtra(sectionedPositionToPosition(position));
-		final int type = mSections.get(position).type;
-		return type;
+		return getSectionCellType(position);
 	}
 
 	/**
@@ -274,21 +404,22 @@ public abstract class SectionedGridAdapter extends BaseAdapter implements Pinned
 	public View getView(final int position, final View convertView, final ViewGroup parent) {
 		View view = null;
 		if (isSectionHeaderPosition(position)) {
-			final Section section = mSections.get(position);
-			LayoutParams layoutParams;
-			switch (section.type) {
+			final Section section = getIndex().getSection(getIndex().findSection(position));
+			switch (getSectionCellType(position)) {
 			case TYPE_HEADER:
 				view = handleSectionHeaderView(convertView, section, parent);
-				layoutParams = view.getLayoutParams();
-				layoutParams.width = getHeaderSize();
-				view.setLayoutParams(layoutParams);
+				// the same height as its fillers, whatever the inflated layout says
+				setCellSize(view, getHeaderSize(), getCachedHeaderHeight(getIndex().findSection(position)));
 				view.setVisibility(View.VISIBLE);
 				break;
 			case TYPE_HEADER_FILLER:
+				final int headerHeight = getCachedHeaderHeight(getIndex().findSection(position));
 				view = convertView;
 				if (view == null) {
 					view = new View(mContext);
-					view.setLayoutParams(new AbsListView.LayoutParams(0, mHeaderHeight));
+					view.setLayoutParams(new AbsListView.LayoutParams(0, headerHeight));
+				} else {
+					setCellSize(view, view.getLayoutParams().width, headerHeight);
 				}
 				break;
 			case TYPE_FILLER:
@@ -296,51 +427,126 @@ public abstract class SectionedGridAdapter extends BaseAdapter implements Pinned
 				if (view == null) {
 					view = new View(mContext);
 					view.setLayoutParams(new AbsListView.LayoutParams(0, mNormalCellHeight));
+					// invisible children are skipped by touch handling, so taps reach wide items
+					view.setVisibility(View.INVISIBLE);
 				}
-				final boolean lastInRow = position % mNumColumns == mNumColumns - 1;
-				layoutParams = view.getLayoutParams();
-				layoutParams.width = lastInRow ? LayoutParams.MATCH_PARENT : 0;
-				view.setLayoutParams(layoutParams);
+				final boolean lastInRow = position % mSections.getIndex().getColumns() == mSections.getIndex().getColumns() - 1;
+				setCellSize(view, lastInRow ? LayoutParams.MATCH_PARENT : 0, mNormalCellHeight);
 				break;
 			}
 		} else {
-			view = mBaseAdapter.getView(sectionedPositionToPosition(position), convertView, parent);
-			final LayoutParams layoutParams = view.getLayoutParams();
-			layoutParams.height = mNormalCellHeight;
-			layoutParams.width = mColumnWidth;
-			view.setLayoutParams(layoutParams);
+			final int basePosition = sectionedPositionToPosition(position);
+			mSections.onItemBound(basePosition, parent);
+			view = mBaseAdapter.getView(basePosition, convertView, parent);
+			setCellSize(view, getCellWidth(basePosition), mNormalCellHeight);
 		}
 		return view;
 	}
 
+	/**
+	 * Applies the size of a cell. A recycled cell rebound with its old size
+	 * keeps its layout, so the grid does not measure it again.
+	 */
+	private static void setCellSize(final View view, final int width, final int height) {
+		final LayoutParams layoutParams = view.getLayoutParams();
+		if (layoutParams.width != width || layoutParams.height != height) {
+			layoutParams.width = width;
+			layoutParams.height = height;
+			view.setLayoutParams(layoutParams);
+		}
+	}
+
+	/** Width of an item cell, a wide item covers the cells of the columns it spans. */
+	private int getCellWidth(final int position) {
+		final GridMetrics metrics = getGridMetrics();
+		if (!mSpanSizesEnabled) {
+			return metrics.getColumnWidth();
+		}
+		final int span = Math.max(1, Math.min(getSpanSize(position), metrics.getNumColumns()));
+		return span * metrics.getColumnWidth() + (span - 1) * metrics.getHorizontalSpacing();
+	}
+
 	protected abstract View handleSectionHeaderView(final View convertView, final Section section, ViewGroup parent);
 
 	protected abstract int getHeaderHeight();
 
+	/**
+	 * Returns the header height of the given section, for sections using header
+	 * layouts of different heights. The header cell and the header fillers of
+	 * the section get this height. It is asked once per section and cached
+	 * until the sections or the data change, or
+	 * {@link #notifySectionHeaderHeightsChanged()} is called.
+	 */
+	protected int getSectionHeaderHeight(final int section) {
+		return mHeaderHeight;
+	}
+
+	/** Drops the cached header heights and refreshes the grid. */
+	public void notifySectionHeaderHeightsChanged() {
+		mSections.getIndex().clearHeaderHeights();
+		notifyDataSetChanged();
+	}
+
+	private int getCachedHeaderHeight(final int section) {
+		int height = mSections.getIndex().getHeaderHeight(section);
+		if (height == SectionIndex.HEIGHT_UNKNOWN) {
+			height = getSectionHeaderHeight(section);
+			mSections.getIndex().setHeaderHeight(section, height);
+		}
+		return height;
+	}
+
 	protected abstract int getNormalCellHeight();
 
+	/**
+	 * Every row of the grid is either a header row or a row of items of the
+	 * normal cell height, so the height of the leading rows is the count of
+	 * header rows among them times their heights plus the item rows.
+	 */
+	@Override
+	public int getRowsHeight(final int rowCount) {
+		if (rowCount <= 0) {
+			return 0;
+		}
+		final SectionIndex<Section> index = getIndex();
+		// sections whose header row starts above the given row
+		final int headers = index.findSection(rowCount * index.getColumns() - 1) + 1;
+		if (mHeaderHeightSums == null || mHeaderHeightSums.length != mSections.getIndex().size() + 1) {
+			final int[] sums = new int[mSections.getIndex().size() + 1];
+			for (int i = 0; i < mSections.getIndex().size(); i++) {
+				sums[i + 1] = sums[i] + getCachedHeaderHeight(i);
+			}
+			mHeaderHeightSums = sums;
+		}
+		return (rowCount - headers) * mNormalCellHeight + mHeaderHeightSums[headers];
+	}
+
+	@Override
+	public Object[] getSections() {
+		return mSections.getIndex().toArray(new Section[mSections.getIndex().size()]);
+	}
+
+	@Override
+	public int getPositionForSection(final int section) {
+		return getIndex().getPositionForSection(section);
+	}
+
+	@Override
+	public int getSectionForPosition(final int position) {
+		return getIndex().getSectionForPosition(position);
+	}
+
 	@Override
 	public boolean isItemViewTypePinned(final int position) {
-		final Section section = mSections.get(position);
-		return isSectionHeaderPosition(position) && section.type == TYPE_HEADER;
+		return getSectionCellType(position) == TYPE_HEADER;
 	}
 
 	// ///////////////////////////////////////////////////
 	// Section //
 	// //////////
-	public static class Section {
-		int firstPosition;
-		int sectionedPosition;
-		CharSequence title;
-		int type = 0;
-
+	public static class Section extends BaseSection {
 		public Section(final int firstPosition, final CharSequence title) {
-			this.firstPosition = firstPosition;
-			this.title = title;
-		}
-
-		public CharSequence getTitle() {
-			return title;
+			super(firstPosition, title);
 		}
 	}
 
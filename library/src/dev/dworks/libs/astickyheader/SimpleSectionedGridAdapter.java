@@ -16,9 +16,6 @@
 
 package dev.dworks.libs.astickyheader;
 
-import java.util.Arrays;
-import java.util.Comparator;
-
 import android.content.Context;
 import android.database.DataSetObserver;
 import android.util.SparseArray;
@@ -29,49 +26,54 @@ import android.widget.BaseAdapter;
 import android.widget.GridView;
 import android.widget.ListAdapter;
 import android.widget.ListView;
+import android.widget.SectionIndexer;
 import android.widget.TextView;
 import dev.dworks.libs.astickyheader.ui.FillerView;
 import dev.dworks.libs.astickyheader.ui.HeaderLayout;
+import dev.dworks.libs.astickyheader.ui.GridMetrics;
 import dev.dworks.libs.astickyheader.ui.PinnedSectionGridView;
+import dev.dworks.libs.astickyheader.ui.PinnedSectionGridView.GridMetricsListener;
 import dev.dworks.libs.astickyheader.ui.PinnedSectionGridView.PinnedSectionGridAdapter;
 
-public class SimpleSectionedGridAdapter extends BaseAdapter implements PinnedSectionGridAdapter{
-	protected static final int TYPE_FILLER = 0;
-	protected static final int TYPE_HEADER = 1;
-	protected static final int TYPE_HEADER_FILLER = 2;
+public class SimpleSectionedGridAdapter extends BaseAdapter implements PinnedSectionGridAdapter, GridMetricsListener, SectionIndexer {
+	/** @deprecated Cell types come from {@link SectionIndex#getCellType(int)}, use {@link SectionIndex#CELL_FILLER}. */
+	@Deprecated
+	protected static final int TYPE_FILLER = SectionIndex.CELL_FILLER;
+	/** @deprecated Use {@link SectionIndex#CELL_HEADER}. */
+	@Deprecated
+	protected static final int TYPE_HEADER = SectionIndex.CELL_HEADER;
+	/** @deprecated Use {@link SectionIndex#CELL_HEADER_FILLER}. */
+	@Deprecated
+	protected static final int TYPE_HEADER_FILLER = SectionIndex.CELL_HEADER_FILLER;
     private boolean mValid = true;
     private int mSectionResourceId;
     private LayoutInflater mLayoutInflater;
     private ListAdapter mBaseAdapter;
-    private SparseArray<Section> mSections = new SparseArray<Section>();
-    private Section[] mInitialSections = new Section[0];
+    private final SectionAdapterHelper<Section> mSections = new SectionAdapterHelper<Section>() {
+        @Override
+        Section newSection(int firstPosition, CharSequence title) {
+            return new Section(firstPosition, title);
+        }
+
+        @Override
+        int getItemCount() {
+            return mBaseAdapter.getCount();
+        }
+
+        @Override
+        void notifyChanged() {
+            notifyDataSetChanged();
+        }
+    };
 	private Context mContext;
 	private View mLastViewSeen;
-	private int mHeaderWidth;
-	private int mNumColumns;
-	private int mWidth;
-	private int mColumnWidth;
-	private int mHorizontalSpacing;
-	private int mStrechMode;
-	private int requestedColumnWidth;
-	private int requestedHorizontalSpacing;
 	private GridView mGridView;
 	private int mHeaderLayoutResId;
 	private int mHeaderTextViewResId;
 
-    public static class Section {
-        int firstPosition;
-        int sectionedPosition;
-        CharSequence title;
-        int type = 0;
-
+    public static class Section extends BaseSection {
         public Section(int firstPosition, CharSequence title) {
-            this.firstPosition = firstPosition;
-            this.title = title;
-        }
-
-        public CharSequence getTitle() {
-            return title;
+            super(firstPosition, title);
         }
     }
 
@@ -87,6 +89,7 @@ public class SimpleSectionedGridAdapter extends BaseAdapter implements PinnedSec
             @Override
             public void onChanged() {
                 mValid = !mBaseAdapter.isEmpty();
+                mSections.onItemsChanged();
                 notifyDataSetChanged();
             }
 
@@ -103,125 +106,92 @@ public class SimpleSectionedGridAdapter extends BaseAdapter implements PinnedSec
     		throw new IllegalArgumentException("Does your grid view extends PinnedSectionGridView?");
     	}
     	mGridView = gridView;
-    	mStrechMode = gridView.getStretchMode();
-    	mWidth = gridView.getWidth() - (mGridView.getPaddingLeft() + mGridView.getPaddingRight());
-        mNumColumns = ((PinnedSectionGridView)gridView).getNumColumns();
-        requestedColumnWidth = ((PinnedSectionGridView)gridView).getColumnWidth();
-    	requestedHorizontalSpacing = ((PinnedSectionGridView)gridView).getHorizontalSpacing();
+        mSections.setColumns(getGridMetrics().getNumColumns());
     }
-    
-    private int getHeaderSize(){
-    	if(mHeaderWidth > 0){
-    		return mHeaderWidth;
-    	}
-    	if(mWidth != mGridView.getWidth()){
-	    	mStrechMode = mGridView.getStretchMode();
-	    	mWidth = ((PinnedSectionGridView)mGridView).getAvailableWidth() - (mGridView.getPaddingLeft() + mGridView.getPaddingRight());
-	        mNumColumns = ((PinnedSectionGridView)mGridView).getNumColumns();
-	        requestedColumnWidth = ((PinnedSectionGridView)mGridView).getColumnWidth();
-	    	requestedHorizontalSpacing = ((PinnedSectionGridView)mGridView).getHorizontalSpacing();
-    	}
-    	
-        int spaceLeftOver = mWidth - (mNumColumns * requestedColumnWidth) -
-                ((mNumColumns - 1) * requestedHorizontalSpacing);
-        switch (mStrechMode) {
-        case GridView.NO_STRETCH:            // Nobody stretches
-        	mWidth -= spaceLeftOver;
-            mColumnWidth = requestedColumnWidth;
-            mHorizontalSpacing = requestedHorizontalSpacing;
-            break;
-
-        case GridView.STRETCH_COLUMN_WIDTH:
-            mColumnWidth = requestedColumnWidth + spaceLeftOver / mNumColumns;
-            mHorizontalSpacing = requestedHorizontalSpacing;
-            break;
-
-        case GridView.STRETCH_SPACING:
-            mColumnWidth = requestedColumnWidth;
-            if (mNumColumns > 1) {
-                mHorizontalSpacing = requestedHorizontalSpacing + 
-                    spaceLeftOver / (mNumColumns - 1);
-            } else {
-                mHorizontalSpacing = requestedHorizontalSpacing + spaceLeftOver;
-            }
-            break;
 
-        case GridView.STRETCH_SPACING_UNIFORM:
-            mColumnWidth = requestedColumnWidth;
-            mHorizontalSpacing = requestedHorizontalSpacing;
-        	mWidth = mWidth - spaceLeftOver + (2 * mHorizontalSpacing);
-            break;
-        }
-        mHeaderWidth = mWidth + ((mNumColumns - 1) * (mColumnWidth + mHorizontalSpacing)) ;
-        return mHeaderWidth;
+    private GridMetrics getGridMetrics(){
+    	return ((PinnedSectionGridView)mGridView).getGridMetrics();
+    }
+
+    private boolean isFullWidthHeaders(){
+    	return ((PinnedSectionGridView)mGridView).isFullWidthHeaders();
+    }
+
+    private int getHeaderSize(){
+    	return getGridMetrics().getHeaderWidth();
     }
-    
 
     public void setSections(Section... sections) {
-    	mInitialSections = sections;
-    	setSections();
+        mSections.setSections(sections);
     }
 
-    public void setSections() {
-        mSections.clear();
+    /**
+     * Sorts the sections and builds their index on a worker thread, the
+     * current sections are shown until it is swapped in. The array is copied
+     * first, so it may be reused once this returns.
+     */
+    public void setSectionsAsync(final Section[] sections, final OnSectionsReadyListener listener) {
+        mSections.setSectionsAsync(sections, listener);
+    }
 
-        getHeaderSize();
-        Arrays.sort(mInitialSections, new Comparator<Section>() {
-            @Override
-            public int compare(Section o, Section o1) {
-                return (o.firstPosition == o1.firstPosition)
-                        ? 0
-                        : ((o.firstPosition < o1.firstPosition) ? -1 : 1);
-            }
-        });
+    /**
+     * @deprecated the column count now follows the grid metrics by itself,
+     *             sections need not be set again when it changes.
+     */
+    @Deprecated
+    public void setSections() {
+        mSections.setColumns(getGridMetrics().getNumColumns());
+        notifyDataSetChanged();
+    }
 
-        int offset = 0; // offset positions for the headers we're adding
-        for (int i = 0; i < mInitialSections.length; i++) {
-			Section section = mInitialSections[i];
-    		Section sectionAdd;
- 
-        	for (int j = 0; j < mNumColumns - 1; j++) {
-        		sectionAdd = new Section(section.firstPosition, section.title);
-        		sectionAdd.type = TYPE_HEADER_FILLER;
-        		sectionAdd.sectionedPosition = sectionAdd.firstPosition + offset;
-                mSections.append(sectionAdd.sectionedPosition, sectionAdd);
-                ++offset;
-			}
-    		
-    		sectionAdd = new Section(section.firstPosition, section.title);
-    		sectionAdd.type = TYPE_HEADER;
-    		sectionAdd.sectionedPosition = sectionAdd.firstPosition + offset;
-            mSections.append(sectionAdd.sectionedPosition, sectionAdd);
-            ++offset;
-        	
-            if(i < mInitialSections.length - 1){
-            	int nextPos = mInitialSections[i+1].firstPosition;
-            	int itemsCount = nextPos - section.firstPosition;
-            	int dummyCount = mNumColumns - (itemsCount % mNumColumns);
-            	if(mNumColumns != dummyCount){
-	            	for (int k = 0 ;k < dummyCount; k++) {
-	                	sectionAdd = new Section(section.firstPosition, section.title);
-	            		sectionAdd.type = TYPE_FILLER;
-	            		sectionAdd.sectionedPosition = nextPos + offset;
-	            		mSections.append(sectionAdd.sectionedPosition, sectionAdd);
-	            		++offset;
-					}
-            	}
-            }
-		}
+    @Override
+    public void onGridMetricsChanged(GridMetrics metrics) {
+        if (metrics.getNumColumns() == mSections.getIndex().getColumns()) {
+            return; // only the header sizes changed, the grid binds the cells again
+        }
+        mSections.setColumns(metrics.getNumColumns());
 
+        // the header rows and fillers moved
         notifyDataSetChanged();
     }
 
+    /**
+     * Switches to sections derived from the base adapter items by the given key
+     * function, scanned on demand while the grid is scrolled. Pass null to stop.
+     */
+    public void setSectionKeyFunction(SectionKeyFunction keyFunction) {
+        mSections.setSectionKeyFunction(keyFunction);
+    }
+
+    /** Appends a section after the existing ones, items appended later join it. */
+    public Section appendSection(int firstPosition, CharSequence title) {
+        return mSections.appendSection(firstPosition, title);
+    }
+
+    /** Inserts a single section without rebuilding the others. */
+    public void insertSection(Section section) {
+        mSections.insertSection(section);
+    }
+
+    /**
+     * Removes the section at the given index, as returned by getSectionForPosition().
+     * Throws an IllegalStateException while setSectionsAsync() is building sections.
+     */
+    public Section removeSection(int section) {
+        return mSections.removeSection(section);
+    }
+
+    /**
+     * Moves the sections after the given base adapter position once delta items
+     * were inserted there, or -delta items removed. Call it once the items of
+     * the base adapter were changed.
+     */
+    public void shiftItems(int position, int delta) {
+        mSections.shiftItems(position, delta);
+    }
+
     public int positionToSectionedPosition(int position) {
-        int offset = 0;
-        for (int i = 0; i < mSections.size(); i++) {
-            if (mSections.valueAt(i).firstPosition > position) {
-                break;
-            }
-            ++offset;
-        }
-        return position + offset;
+        return mSections.getIndex().positionToSectionedPosition(position);
     }
 
     public int sectionedPositionToPosition(int sectionedPosition) {
@@ -229,44 +199,47 @@ public class SimpleSectionedGridAdapter extends BaseAdapter implements PinnedSec
             return ListView.INVALID_POSITION;
         }
 
-        int offset = 0;
-        for (int i = 0; i < mSections.size(); i++) {
-            if (mSections.valueAt(i).sectionedPosition > sectionedPosition) {
-                break;
-            }
-            --offset;
-        }
-        return sectionedPosition + offset;
+        return mSections.getIndex().sectionedPositionToPosition(sectionedPosition);
     }
 
     public boolean isSectionHeaderPosition(int position) {
-        return mSections.get(position) != null;
+        return !mSections.getIndex().isItem(position);
     }
 
     @Override
     public int getCount() {
-        return (mValid ? mBaseAdapter.getCount() + mSections.size() : 0);
+        return (mValid ? mBaseAdapter.getCount() + mSections.getIndex().getExtraCount() : 0);
     }
 
     @Override
     public Object getItem(int position) {
         return isSectionHeaderPosition(position)
-                ? mSections.get(position)
+                ? mSections.getIndex().getSection(mSections.getIndex().findSection(position))
                 : mBaseAdapter.getItem(sectionedPositionToPosition(position));
     }
 
     @Override
     public long getItemId(int position) {
-        return isSectionHeaderPosition(position)
-                ? Integer.MAX_VALUE - mSections.indexOfKey(position)
-                : mBaseAdapter.getItemId(sectionedPositionToPosition(position));
+        if (!isSectionHeaderPosition(position)) {
+            return mBaseAdapter.getItemId(sectionedPositionToPosition(position));
+        }
+        return mSections.getCellId(mSections.getIndex().findSection(position), mSections.getIndex().getCellSlot(position), mBaseAdapter);
     }
 
     @Override
     public int getItemViewType(int position) {
-        return isSectionHeaderPosition(position)
-                ? getViewTypeCount() - 1
-                : mBaseAdapter.getItemViewType(sectionedPositionToPosition(position));
+        switch (mSections.getIndex().getCellType(position)) {
+        case SectionIndex.CELL_ITEM:
+            return mBaseAdapter.getItemViewType(sectionedPositionToPosition(position));
+        case SectionIndex.CELL_FILLER:
+            return mBaseAdapter.getViewTypeCount() + 1;
+        case SectionIndex.CELL_HEADER_FILLER:
+            return isFullWidthHeaders()
+                    ? mBaseAdapter.getViewTypeCount() + 1
+                    : mBaseAdapter.getViewTypeCount();
+        default:
+            return mBaseAdapter.getViewTypeCount();
+        }
     }
 
     @Override
@@ -279,7 +252,7 @@ public class SimpleSectionedGridAdapter extends BaseAdapter implements PinnedSec
 
     @Override
     public int getViewTypeCount() {
-        return mBaseAdapter.getViewTypeCount() + 1; // the section headings
+        return mBaseAdapter.getViewTypeCount() + 2; // the section headings and fillers
     }
 
     @Override
@@ -299,49 +272,62 @@ public class SimpleSectionedGridAdapter extends BaseAdapter implements PinnedSec
 
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
-        if (isSectionHeaderPosition(position)) {
-			HeaderLayout header;
-			TextView view;
-			if (null == convertView) {
+        final int cellType = mSections.getIndex().getCellType(position);
+        if (cellType == SectionIndex.CELL_FILLER) {
+			convertView = getFillerView(convertView, mLastViewSeen);
+        } else if (cellType == SectionIndex.CELL_HEADER_FILLER && isFullWidthHeaders()) {
+			// the header cell ends the row and sets its height
+			convertView = getFillerView(convertView, null);
+        } else if (cellType != SectionIndex.CELL_ITEM) {
+			HeaderViewHolder holder;
+			if (null == convertView || !(convertView.getTag() instanceof HeaderViewHolder)) {
 				convertView = mLayoutInflater.inflate(mSectionResourceId, parent, false);
+				holder = new HeaderViewHolder();
+				holder.header = (HeaderLayout) convertView.findViewById(mHeaderLayoutResId);
+				holder.title = (TextView) convertView.findViewById(mHeaderTextViewResId);
+				convertView.setTag(holder);
 			} else {
-				if (null == convertView.findViewById(mHeaderLayoutResId)) {
-					convertView = mLayoutInflater.inflate(mSectionResourceId, parent, false);
-				}
-			}
-			switch (mSections.get(position).type) {
-			case TYPE_HEADER:
-				header = (HeaderLayout) convertView.findViewById(mHeaderLayoutResId);
-				view = (TextView) convertView.findViewById(mHeaderTextViewResId);
-				view.setText(mSections.get(position).title);
-				header.setHeaderWidth(getHeaderSize());
-				break;
-			case TYPE_HEADER_FILLER:
-				header = (HeaderLayout) convertView.findViewById(mHeaderLayoutResId);
-				view = (TextView) convertView.findViewById(mHeaderTextViewResId);
-				view.setText(mSections.get(position).title);
-				header.setHeaderWidth(0);
-				break;
-			default:
-				convertView = getFillerView(mLastViewSeen);
+				holder = (HeaderViewHolder) convertView.getTag();
 			}
+			holder.title.setText(mSections.getIndex().getSection(mSections.getIndex().findSection(position)).title);
+			holder.header.setHeaderWidth(cellType == SectionIndex.CELL_HEADER ? getHeaderSize() : 0);
         } else {
-            convertView = mBaseAdapter.getView(sectionedPositionToPosition(position), convertView, parent);
+            int basePosition = sectionedPositionToPosition(position);
+            mSections.onItemBound(basePosition, parent);
+            convertView = mBaseAdapter.getView(basePosition, convertView, parent);
         	mLastViewSeen = convertView; 
         }
         return convertView;
     }
     
-	private FillerView getFillerView(final View lastViewSeen) {
-		final FillerView fillerView = new FillerView(mContext);
+	private FillerView getFillerView(final View convertView, final View lastViewSeen) {
+		final FillerView fillerView = convertView instanceof FillerView
+				? (FillerView) convertView
+				: new FillerView(mContext);
 		fillerView.setMeasureTarget(lastViewSeen);
 		return fillerView;
 	}
 
+	@Override
+	public Object[] getSections() {
+		return mSections.getIndex().toArray(new Section[mSections.getIndex().size()]);
+	}
+
+	@Override
+	public int getPositionForSection(int section) {
+		return mSections.getIndex().getPositionForSection(section);
+	}
+
+	@Override
+	public int getSectionForPosition(int position) {
+		return mSections.getIndex().getSectionForPosition(position);
+	}
+
 	@Override
 	public boolean isItemViewTypePinned(int position) {
-		Section section = mSections.get(position); 
-		return isSectionHeaderPosition(position) && section.type != TYPE_FILLER;
+		int cellType = mSections.getIndex().getCellType(position);
+		return cellType == SectionIndex.CELL_HEADER
+				|| (cellType == SectionIndex.CELL_HEADER_FILLER && !isFullWidthHeaders());
 	}
 
 	@Override
@@ -349,6 +335,12 @@ public class SimpleSectionedGridAdapter extends BaseAdapter implements PinnedSec
 		return mHeaderLayoutResId;
 	}
 
+	/** Child views of a section header, looked up once when it is inflated. */
+	private static class HeaderViewHolder {
+		HeaderLayout header;
+		TextView title;
+	}
+
 	public static class ViewHolder {
 		@SuppressWarnings("unchecked")
 		public static <T extends View> T get(View view, int id) {
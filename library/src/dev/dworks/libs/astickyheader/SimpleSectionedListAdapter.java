@@ -16,40 +16,44 @@
 
 package dev.dworks.libs.astickyheader;
 
-import java.util.Arrays;
-import java.util.Comparator;
-
 import android.content.Context;
 import android.database.DataSetObserver;
-import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.BaseAdapter;
 import android.widget.ListAdapter;
 import android.widget.ListView;
+import android.widget.SectionIndexer;
 import android.widget.TextView;
 import dev.dworks.libs.astickyheader.ui.PinnedSectionListView.PinnedSectionListAdapter;
 
-public class SimpleSectionedListAdapter extends BaseAdapter implements PinnedSectionListAdapter{
+public class SimpleSectionedListAdapter extends BaseAdapter implements PinnedSectionListAdapter, SectionIndexer {
     private boolean mValid = true;
     private int mSectionResourceId;
     private LayoutInflater mLayoutInflater;
     private ListAdapter mBaseAdapter;
-    private SparseArray<Section> mSections = new SparseArray<Section>();
-	private int mHeaderTextViewResId;
+    private final SectionAdapterHelper<Section> mSections = new SectionAdapterHelper<Section>() {
+        @Override
+        Section newSection(int firstPosition, CharSequence title) {
+            return new Section(firstPosition, title);
+        }
 
-    public static class Section {
-        int firstPosition;
-        int sectionedPosition;
-        CharSequence title;
-        public Section(int firstPosition, CharSequence title) {
-            this.firstPosition = firstPosition;
-            this.title = title;
+        @Override
+        int getItemCount() {
+            return mBaseAdapter.getCount();
+        }
+
+        @Override
+        void notifyChanged() {
+            notifyDataSetChanged();
         }
+    };
+	private int mHeaderTextViewResId;
 
-        public CharSequence getTitle() {
-            return title;
+    public static class Section extends BaseSection {
+        public Section(int firstPosition, CharSequence title) {
+            super(firstPosition, title);
         }
     }
 
@@ -62,6 +66,7 @@ public class SimpleSectionedListAdapter extends BaseAdapter implements PinnedSec
             @Override
             public void onChanged() {
                 mValid = !mBaseAdapter.isEmpty();
+                mSections.onItemsChanged();
                 notifyDataSetChanged();
             }
 
@@ -74,37 +79,55 @@ public class SimpleSectionedListAdapter extends BaseAdapter implements PinnedSec
     }
 
     public void setSections(Section... sections) {
-        mSections.clear();
+        mSections.setSections(sections);
+    }
 
-        notifyDataSetChanged();
-        Arrays.sort(sections, new Comparator<Section>() {
-            @Override
-            public int compare(Section o, Section o1) {
-                return (o.firstPosition == o1.firstPosition)
-                        ? 0
-                        : ((o.firstPosition < o1.firstPosition) ? -1 : 1);
-            }
-        });
+    /**
+     * Sorts the sections and builds their index on a worker thread, the
+     * current sections are shown until it is swapped in. The array is copied
+     * first, so it may be reused once this returns.
+     */
+    public void setSectionsAsync(final Section[] sections, final OnSectionsReadyListener listener) {
+        mSections.setSectionsAsync(sections, listener);
+    }
 
-        int offset = 0; // offset positions for the headers we're adding
-        for (Section section : sections) {
-            section.sectionedPosition = section.firstPosition + offset;
-            mSections.append(section.sectionedPosition, section);
-            ++offset;
-        }
+    /**
+     * Switches to sections derived from the base adapter items by the given key
+     * function, scanned on demand while the list is scrolled. Pass null to stop.
+     */
+    public void setSectionKeyFunction(SectionKeyFunction keyFunction) {
+        mSections.setSectionKeyFunction(keyFunction);
+    }
 
-        notifyDataSetChanged();
+    /** Appends a section after the existing ones, items appended later join it. */
+    public Section appendSection(int firstPosition, CharSequence title) {
+        return mSections.appendSection(firstPosition, title);
+    }
+
+    /** Inserts a single section without rebuilding the others. */
+    public void insertSection(Section section) {
+        mSections.insertSection(section);
+    }
+
+    /**
+     * Removes the section at the given index, as returned by getSectionForPosition().
+     * Throws an IllegalStateException while setSectionsAsync() is building sections.
+     */
+    public Section removeSection(int section) {
+        return mSections.removeSection(section);
+    }
+
+    /**
+     * Moves the sections after the given base adapter position once delta items
+     * were inserted there, or -delta items removed. Call it once the items of
+     * the base adapter were changed.
+     */
+    public void shiftItems(int position, int delta) {
+        mSections.shiftItems(position, delta);
     }
 
     public int positionToSectionedPosition(int position) {
-        int offset = 0;
-        for (int i = 0; i < mSections.size(); i++) {
-            if (mSections.valueAt(i).firstPosition > position) {
-                break;
-            }
-            ++offset;
-        }
-        return position + offset;
+        return mSections.getIndex().positionToSectionedPosition(position);
     }
 
     public int sectionedPositionToPosition(int sectionedPosition) {
@@ -112,37 +135,31 @@ public class SimpleSectionedListAdapter extends BaseAdapter implements PinnedSec
             return ListView.INVALID_POSITION;
         }
 
-        int offset = 0;
-        for (int i = 0; i < mSections.size(); i++) {
-            if (mSections.valueAt(i).sectionedPosition > sectionedPosition) {
-                break;
-            }
-            --offset;
-        }
-        return sectionedPosition + offset;
+        return mSections.getIndex().sectionedPositionToPosition(sectionedPosition);
     }
 
     public boolean isSectionHeaderPosition(int position) {
-        return mSections.get(position) != null;
+        return !mSections.getIndex().isItem(position);
     }
 
     @Override
     public int getCount() {
-        return (mValid ? mBaseAdapter.getCount() + mSections.size() : 0);
+        return (mValid ? mBaseAdapter.getCount() + mSections.getIndex().getExtraCount() : 0);
     }
 
     @Override
     public Object getItem(int position) {
         return isSectionHeaderPosition(position)
-                ? mSections.get(position)
+                ? mSections.getIndex().getSection(mSections.getIndex().findSection(position))
                 : mBaseAdapter.getItem(sectionedPositionToPosition(position));
     }
 
     @Override
     public long getItemId(int position) {
-        return isSectionHeaderPosition(position)
-                ? Integer.MAX_VALUE - mSections.indexOfKey(position)
-                : mBaseAdapter.getItemId(sectionedPositionToPosition(position));
+        if (!isSectionHeaderPosition(position)) {
+            return mBaseAdapter.getItemId(sectionedPositionToPosition(position));
+        }
+        return mSections.getCellId(mSections.getIndex().findSection(position), 0, mBaseAdapter);
     }
 
     @Override
@@ -183,26 +200,47 @@ public class SimpleSectionedListAdapter extends BaseAdapter implements PinnedSec
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
         if (isSectionHeaderPosition(position)) {
-        	TextView view;
-        	if(null == convertView){
-        		convertView = mLayoutInflater.inflate(mSectionResourceId, parent, false);
-        	}
-        	else{
-        		if(null == convertView.findViewById(mHeaderTextViewResId)){
-        			convertView = mLayoutInflater.inflate(mSectionResourceId, parent, false);	
-        		}
-        	}
-            view = (TextView) convertView.findViewById(mHeaderTextViewResId);
-            view.setText(mSections.get(position).title);
+            HeaderViewHolder holder;
+            if (null == convertView || !(convertView.getTag() instanceof HeaderViewHolder)) {
+                convertView = mLayoutInflater.inflate(mSectionResourceId, parent, false);
+                holder = new HeaderViewHolder();
+                holder.title = (TextView) convertView.findViewById(mHeaderTextViewResId);
+                convertView.setTag(holder);
+            } else {
+                holder = (HeaderViewHolder) convertView.getTag();
+            }
+            holder.title.setText(mSections.getIndex().getSection(mSections.getIndex().findSection(position)).title);
             return convertView;
 
         } else {
-            return mBaseAdapter.getView(sectionedPositionToPosition(position), convertView, parent);
+            int basePosition = sectionedPositionToPosition(position);
+            mSections.onItemBound(basePosition, parent);
+            return mBaseAdapter.getView(basePosition, convertView, parent);
         }
     }
 
+    @Override
+    public Object[] getSections() {
+        return mSections.getIndex().toArray(new Section[mSections.getIndex().size()]);
+    }
+
+    @Override
+    public int getPositionForSection(int section) {
+        return mSections.getIndex().getPositionForSection(section);
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        return mSections.getIndex().getSectionForPosition(position);
+    }
+
 	@Override
 	public boolean isItemViewTypePinned(int position) {
 		return isSectionHeaderPosition(position);
 	}
+
+    /** Child views of a section header, looked up once when it is inflated. */
+    private static class HeaderViewHolder {
+        TextView title;
+    }
 }
\ No newline at end of file
@@ -33,8 +33,18 @@ public class FillerView extends LinearLayout {
 		super(context);
 	}
 
+	/**
+	 * Sets the view whose height the filler copies. A recycled filler is only
+	 * remeasured by the grid when a layout was requested, so retargeting it to
+	 * a view of another height requests one.
+	 */
 	public void setMeasureTarget(View lastViewSeen) {
+		if (mMeasureTarget == lastViewSeen
+				&& (null == lastViewSeen || lastViewSeen.getMeasuredHeight() == getMeasuredHeight())) {
+			return;
+		}
 		mMeasureTarget = lastViewSeen;
+		requestLayout();
 	}
 
 	public FillerView(Context context, AttributeSet attrs) {
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader.ui;
+
+import android.widget.GridView;
+
+/**
+ * Column layout of a {@link PinnedSectionGridView} for one width, column count,
+ * spacing and stretch mode, computed the way GridView distributes the space.
+ * Instances are immutable; the grid view creates a new one when it is measured
+ * with other values, so adapters can read them on every bind.
+ */
+public final class GridMetrics {
+	private final int mAvailableWidth;
+	private final int mRequestedColumns;
+	private final int mRequestedColumnWidth;
+	private final int mRequestedHorizontalSpacing;
+	private final int mStretchMode;
+
+	private final int mNumColumns;
+	private final int mColumnWidth;
+	private final int mHorizontalSpacing;
+	private final int mHeaderWidth;
+
+	GridMetrics(int availableWidth, int numColumns, int requestedColumnWidth, int requestedHorizontalSpacing,
+			int stretchMode) {
+		mAvailableWidth = availableWidth;
+		mRequestedColumns = numColumns;
+		mRequestedColumnWidth = requestedColumnWidth;
+		mRequestedHorizontalSpacing = requestedHorizontalSpacing;
+		mStretchMode = stretchMode;
+
+		mNumColumns = Math.max(numColumns, 1);
+		int width = availableWidth;
+		int columnWidth = requestedColumnWidth;
+		int horizontalSpacing = requestedHorizontalSpacing;
+		final int spaceLeftOver = width - (mNumColumns * requestedColumnWidth)
+				- ((mNumColumns - 1) * requestedHorizontalSpacing);
+		switch (stretchMode) {
+		case GridView.NO_STRETCH: // Nobody stretches
+			width -= spaceLeftOver;
+			break;
+
+		case GridView.STRETCH_COLUMN_WIDTH:
+			columnWidth = requestedColumnWidth + spaceLeftOver / mNumColumns;
+			break;
+
+		case GridView.STRETCH_SPACING:
+			if (mNumColumns > 1) {
+				horizontalSpacing = requestedHorizontalSpacing + spaceLeftOver / (mNumColumns - 1);
+			} else {
+				horizontalSpacing = requestedHorizontalSpacing + spaceLeftOver;
+			}
+			break;
+
+		case GridView.STRETCH_SPACING_UNIFORM:
+			width = width - spaceLeftOver + (2 * horizontalSpacing);
+			break;
+		}
+		mColumnWidth = columnWidth;
+		mHorizontalSpacing = horizontalSpacing;
+		mHeaderWidth = width + ((mNumColumns - 1) * (columnWidth + horizontalSpacing));
+	}
+
+	/** Returns true if these metrics were computed from the given values. */
+	boolean matches(int availableWidth, int numColumns, int requestedColumnWidth, int requestedHorizontalSpacing,
+			int stretchMode) {
+		return mAvailableWidth == availableWidth && mRequestedColumns == numColumns
+				&& mRequestedColumnWidth == requestedColumnWidth
+				&& mRequestedHorizontalSpacing == requestedHorizontalSpacing && mStretchMode == stretchMode;
+	}
+
+	/** Width inside the grid padding. */
+	public int getAvailableWidth() {
+		return mAvailableWidth;
+	}
+
+	public int getNumColumns() {
+		return mNumColumns;
+	}
+
+	public int getColumnWidth() {
+		return mColumnWidth;
+	}
+
+	public int getHorizontalSpacing() {
+		return mHorizontalSpacing;
+	}
+
+	/** Width a header cell needs to span its whole row. */
+	public int getHeaderWidth() {
+		return mHeaderWidth;
+	}
+}
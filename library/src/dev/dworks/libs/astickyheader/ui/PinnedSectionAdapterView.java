@@ -0,0 +1,675 @@
+/*
+ * Copyright 2014 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader.ui;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.GradientDrawable;
+import android.graphics.drawable.GradientDrawable.Orientation;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.ListAdapter;
+import android.widget.Scroller;
+import dev.dworks.libs.astickyheader.BuildConfig;
+import dev.dworks.libs.astickyheader.ui.PinnedSectionListView.PinnedSection;
+import dev.dworks.libs.astickyheader.ui.PinnedSectionListView.PinnedSectionListAdapter;
+
+/**
+ * Base of the views which lay out the adapters of {@link PinnedSectionListView}
+ * themselves, {@link PinnedSectionStaggeredGridView} and
+ * {@link PinnedSectionStripView}. It keeps the ids and headers of the
+ * positions laid out so far, the recycled views and the touch scrolling along
+ * one axis. Subclasses cache their own geometry and lay their children out.
+ * <p>
+ * The header of the current section is pinned at the start of the viewport,
+ * with a shadow after it, in a {@link PinnedSection} recycled the way
+ * PinnedSectionListView recycles it: a section pinned again keeps its
+ * layout unless the data or its measure specs changed.
+ * <p>
+ * Measured with a height other than EXACTLY, e.g. wrap_content inside a
+ * ScrollView or a list row, the view is as tall as the tallest of the first
+ * few positions from the first shown one, plus padding, at most as tall as an
+ * AT_MOST height allows.
+ */
+abstract class PinnedSectionAdapterView extends AdapterView<ListAdapter> {
+	/** Number of positions measured for a height which is not EXACTLY. */
+	private static final int MEASURE_SAMPLE_COUNT = 4;
+
+	/** Layout parameters remembering the position and view type of a child. */
+	public static class LayoutParams extends ViewGroup.LayoutParams {
+		int position = INVALID_POSITION;
+		int viewType;
+
+		public LayoutParams(int width, int height) {
+			super(width, height);
+		}
+
+		public LayoutParams(Context context, AttributeSet attrs) {
+			super(context, attrs);
+		}
+
+		public LayoutParams(ViewGroup.LayoutParams source) {
+			super(source);
+		}
+	}
+
+	ListAdapter mAdapter;
+
+	// layout cache, valid for the first mLaidOutCount positions
+	int mAdapterCount;
+	int mLaidOutCount;
+	long[] mIds = new long[0];
+	int[] mHeaderPositions = new int[0];
+	/** Top or left edge of every header, they grow with the positions. */
+	int[] mHeaderStarts = new int[0];
+	int mHeaderCount;
+
+	private final SparseArray<ArrayList<View>> mScrapViews = new SparseArray<ArrayList<View>>();
+
+	// touch handling
+	private final boolean mVertical;
+	private final Scroller mScroller;
+	private VelocityTracker mVelocityTracker;
+	private final int mTouchSlop;
+	private final int mMinimumVelocity;
+	private final int mMaximumVelocity;
+	private float mDownMotion;
+	private float mLastMotion;
+	private boolean mBeingDragged;
+
+	// fields used for drawing shadow next to a pinned section
+	private GradientDrawable mShadowDrawable;
+	private int mSectionsDistance;
+	private int mShadowSize;
+
+	/** Shadow for being recycled, can be null. */
+	PinnedSection mRecycleSection;
+
+	/** shadow instance with a pinned view, can be null. */
+	PinnedSection mPinnedSection;
+
+	/** Incremented on every adapter change, measures from older generations are stale. */
+	int mDataGeneration;
+
+	/**
+	 * Pinned view translation along the scroll axis. We use it to stick pinned
+	 * view to the next section.
+	 */
+	int mTranslate;
+
+	private final Runnable mFlingRunnable = new Runnable() {
+		@Override
+		public void run() {
+			if (!mScroller.computeScrollOffset())
+				return;
+			final int current = mVertical ? mScroller.getCurrY() : mScroller.getCurrX();
+			if (trackMotionScroll(current - getContentOffset())) {
+				post(this);
+			} else {
+				mScroller.abortAnimation(); // reached an end
+			}
+		}
+	};
+
+	private final DataSetObserver mDataSetObserver = new DataSetObserver() {
+		@Override
+		public void onChanged() {
+			onDataChanged();
+		}
+
+		@Override
+		public void onInvalidated() {
+			onDataInvalidated();
+		}
+	};
+
+	PinnedSectionAdapterView(Context context, AttributeSet attrs, int defStyle, boolean vertical) {
+		super(context, attrs, defStyle);
+		mVertical = vertical;
+		final ViewConfiguration configuration = ViewConfiguration.get(context);
+		mTouchSlop = configuration.getScaledTouchSlop();
+		mMinimumVelocity = configuration.getScaledMinimumFlingVelocity();
+		mMaximumVelocity = configuration.getScaledMaximumFlingVelocity();
+		mScroller = new Scroller(context);
+		setWillNotDraw(false);
+		initShadow(true);
+	}
+
+	// -- public API methods
+
+	public void setShadowVisible(boolean visible) {
+		initShadow(visible);
+		invalidate();
+	}
+
+	public void initShadow(boolean visible) {
+		if (visible) {
+			if (mShadowDrawable == null) {
+				mShadowDrawable = new GradientDrawable(mVertical ? Orientation.TOP_BOTTOM : Orientation.LEFT_RIGHT, new int[] { Color.parseColor("#ffa0a0a0"), Color.parseColor("#50a0a0a0"), Color.parseColor("#00a0a0a0") });
+				mShadowSize = (int) (8 * getResources().getDisplayMetrics().density);
+			}
+		} else {
+			if (mShadowDrawable != null) {
+				mShadowDrawable = null;
+				mShadowSize = 0;
+			}
+		}
+	}
+
+	@Override
+	public ListAdapter getAdapter() {
+		return mAdapter;
+	}
+
+	@Override
+	public void setAdapter(ListAdapter adapter) {
+		// assert adapter in debug mode
+		if (BuildConfig.DEBUG && adapter != null && !(adapter instanceof PinnedSectionListAdapter))
+			throw new IllegalArgumentException("Does your adapter implement PinnedSectionListAdapter?");
+
+		if (mAdapter != null)
+			mAdapter.unregisterDataSetObserver(mDataSetObserver);
+		if (adapter != null)
+			adapter.registerDataSetObserver(mDataSetObserver);
+
+		mDataGeneration++;
+		resetLayout();
+		if (mAdapter != adapter) {
+			// view types of the old adapter mean nothing to the new one
+			mScrapViews.clear();
+			mRecycleSection = null;
+		}
+		mAdapter = adapter;
+		mAdapterCount = adapter == null ? 0 : adapter.getCount();
+		requestLayout();
+	}
+
+	@Override
+	public int getCount() {
+		return mAdapterCount;
+	}
+
+	@Override
+	public View getSelectedView() {
+		return null;
+	}
+
+	// -- layout
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		final int width = MeasureSpec.getSize(widthMeasureSpec);
+		final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+		int height = MeasureSpec.getSize(heightMeasureSpec);
+		if (heightMode != MeasureSpec.EXACTLY) {
+			final int contentWidth = Math.max(width - getPaddingLeft() - getPaddingRight(), 0);
+			final int wrapHeight = measureTallestChild(contentWidth) + getPaddingTop() + getPaddingBottom();
+			height = heightMode == MeasureSpec.AT_MOST ? Math.min(wrapHeight, height) : wrapHeight;
+		}
+		setMeasuredDimension(width, height);
+	}
+
+	/** Measures a few positions from the first shown one and returns the tallest height. */
+	private int measureTallestChild(int contentWidth) {
+		if (mAdapter == null)
+			return 0;
+		final int first = Math.max(getFirstVisiblePosition(), 0);
+		final int end = Math.min(first + MEASURE_SAMPLE_COUNT, mAdapterCount);
+		int tallest = 0;
+		for (int position = first; position < end; position++) {
+			final View view = obtainView(position);
+			measureWrapChild(view, position, contentWidth);
+			tallest = Math.max(tallest, view.getMeasuredHeight());
+			addScrapView(view);
+		}
+		return tallest;
+	}
+
+	/** Measures a child for a view whose height follows its children. */
+	abstract void measureWrapChild(View child, int position, int contentWidth);
+
+	/** Content offset of the top or left edge of the viewport. */
+	abstract int getContentOffset();
+
+	/** Scrolls the content by the given offset and returns whether it moved. */
+	abstract boolean trackMotionScroll(int delta);
+
+	/** Drops the layout cache and recycles all children. */
+	abstract void resetLayout();
+
+	/** Forgets the layout of the given position and all after it. */
+	abstract void rewindLayout(int position);
+
+	/** Grows the geometry arrays of the subclass to the given size. */
+	abstract void onCapacityChanged(int size);
+
+	/**
+	 * Keeps the cached layout of the positions before the first changed one.
+	 * With stable ids an append keeps all of it; otherwise the layout restarts
+	 * at the first position.
+	 */
+	void onDataChanged() {
+		mDataGeneration++;
+		final int count = mAdapter.getCount();
+		int valid = 0;
+		if (mAdapter.hasStableIds())
+			valid = findFirstChangedPosition(Math.min(mLaidOutCount, count));
+		mAdapterCount = count;
+		rewindLayout(valid);
+		requestLayout();
+	}
+
+	void onDataInvalidated() {
+		mDataGeneration++;
+		mAdapterCount = 0;
+		resetLayout();
+		requestLayout();
+	}
+
+	/**
+	 * Returns the first position before the given one whose layout has to be
+	 * redone. Before the shown section only the ids of the headers are
+	 * compared: items inserted or removed there move them, and the layout
+	 * restarts at the section before the first moved header. Items replaced in
+	 * place there keep their cached geometry. So a change costs one
+	 * getItemId() per section before and one per laid out position from the
+	 * shown section on, not one per position scrolled past.
+	 */
+	int findFirstChangedPosition(int end) {
+		final int shown = findHeaderBefore(getContentOffset() + 1);
+		for (int header = 0; header <= shown; header++) {
+			final int position = mHeaderPositions[header];
+			if (position >= end || mIds[position] != mAdapter.getItemId(position))
+				return header == 0 ? 0 : mHeaderPositions[header - 1];
+		}
+		for (int position = shown < 0 ? 0 : mHeaderPositions[shown] + 1; position < end; position++) {
+			if (mIds[position] != mAdapter.getItemId(position))
+				return position;
+		}
+		return end;
+	}
+
+	/** Records a header laid out at the given top or left edge. */
+	void addHeader(int position, int start) {
+		mHeaderPositions[mHeaderCount] = position;
+		mHeaderStarts[mHeaderCount++] = start;
+	}
+
+	/** Returns the index of the last header starting before the given content offset, or -1. */
+	int findHeaderBefore(int offset) {
+		int low = 0;
+		int high = mHeaderCount;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (mHeaderStarts[mid] < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low - 1;
+	}
+
+	/** Returns the index of the last header at or before the given position, or -1. */
+	int findHeaderForPosition(int position) {
+		int low = 0;
+		int high = mHeaderCount;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (mHeaderPositions[mid] <= position) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low - 1;
+	}
+
+	void ensureCapacity(int capacity) {
+		if (mIds.length >= capacity)
+			return;
+		final int size = Math.max(capacity, mIds.length * 2);
+		mIds = copyOf(mIds, size);
+		mHeaderPositions = copyOf(mHeaderPositions, size);
+		mHeaderStarts = copyOf(mHeaderStarts, size);
+		onCapacityChanged(size);
+	}
+
+	static int[] copyOf(int[] array, int size) {
+		final int[] copy = new int[size];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+
+	static long[] copyOf(long[] array, int size) {
+		final long[] copy = new long[size];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+
+	// -- recycling
+
+	View obtainView(int position) {
+		final int viewType = mAdapter.getItemViewType(position);
+		final View scrap = takeScrapView(viewType);
+		final View view = mAdapter.getView(position, scrap, this);
+		if (scrap != null && view != scrap)
+			addScrapView(scrap); // not reused, keep it for another position
+		final LayoutParams lp = ensureLayoutParams(view);
+		lp.position = position;
+		lp.viewType = viewType;
+		return view;
+	}
+
+	LayoutParams ensureLayoutParams(View view) {
+		final ViewGroup.LayoutParams params = view.getLayoutParams();
+		if (params instanceof LayoutParams)
+			return (LayoutParams) params;
+		final LayoutParams lp = params == null
+				? (LayoutParams) generateDefaultLayoutParams()
+				: new LayoutParams(params);
+		view.setLayoutParams(lp);
+		return lp;
+	}
+
+	private View takeScrapView(int viewType) {
+		final ArrayList<View> scrap = mScrapViews.get(viewType);
+		return scrap == null || scrap.isEmpty() ? null : scrap.remove(scrap.size() - 1);
+	}
+
+	void addScrapView(View view) {
+		final int viewType = ((LayoutParams) view.getLayoutParams()).viewType;
+		if (viewType < 0)
+			return; // not recycled, e.g. ITEM_VIEW_TYPE_IGNORE
+		ArrayList<View> scrap = mScrapViews.get(viewType);
+		if (scrap == null) {
+			scrap = new ArrayList<View>();
+			mScrapViews.put(viewType, scrap);
+		}
+		scrap.add(view);
+	}
+
+	void recycleChildren() {
+		for (int i = getChildCount() - 1; i >= 0; i--) {
+			addScrapView(getChildAt(i));
+		}
+		removeAllViewsInLayout();
+	}
+
+	static int getPosition(View child) {
+		return ((LayoutParams) child.getLayoutParams()).position;
+	}
+
+	@Override
+	protected ViewGroup.LayoutParams generateLayoutParams(ViewGroup.LayoutParams p) {
+		return new LayoutParams(p);
+	}
+
+	@Override
+	public ViewGroup.LayoutParams generateLayoutParams(AttributeSet attrs) {
+		return new LayoutParams(getContext(), attrs);
+	}
+
+	@Override
+	protected boolean checkLayoutParams(ViewGroup.LayoutParams p) {
+		return p instanceof LayoutParams;
+	}
+
+	// -- pinned section
+
+	/** Returns the width measure spec of the pinned view. */
+	abstract int getPinnedWidthMeasureSpec(View view);
+
+	/** Returns the height measure spec of the pinned view. */
+	abstract int getPinnedHeightMeasureSpec(View view);
+
+	/** Pins the last header before the viewport and pushes it away by the next one. */
+	void updatePinnedSection() {
+		final int offset = getContentOffset();
+		final int header = findHeaderBefore(offset);
+		if (header < 0) {
+			destroyPinnedShadow();
+			return;
+		}
+		final int position = mHeaderPositions[header];
+		if (mPinnedSection == null || mPinnedSection.position != position) {
+			destroyPinnedShadow();
+			createPinnedShadow(position);
+		}
+
+		final View view = mPinnedSection.view;
+		final int pinnedSize = mVertical ? view.getHeight() : view.getWidth();
+		mTranslate = 0;
+		mSectionsDistance = Integer.MAX_VALUE;
+		if (header + 1 < mHeaderCount) {
+			mSectionsDistance = mHeaderStarts[header + 1] - offset - pinnedSize;
+			if (mSectionsDistance < 0)
+				mTranslate = mSectionsDistance; // next section pushes the pinned one away
+		}
+	}
+
+	/** Create shadow wrapper with a pinned view for a view at given position */
+	void createPinnedShadow(int position) {
+
+		// try to recycle shadow
+		PinnedSection pinnedShadow = mRecycleSection;
+		mRecycleSection = null;
+
+		// create new shadow, if needed
+		if (pinnedShadow == null)
+			pinnedShadow = new PinnedSection();
+		View recycledView = pinnedShadow.view;
+		long id = mAdapter.getItemId(position);
+		// request new view using recycled view, if such
+		View pinnedView = mAdapter.getView(position, pinnedShadow.view, this);
+		ensureLayoutParams(pinnedView);
+
+		// measure & layout, unless the same section was bound since the last data change
+		int ws = getPinnedWidthMeasureSpec(pinnedView);
+		int hs = getPinnedHeightMeasureSpec(pinnedView);
+		boolean bound = pinnedView == recycledView && pinnedShadow.id == id
+				&& pinnedShadow.generation == mDataGeneration;
+		if (!bound || pinnedShadow.widthMeasureSpec != ws || pinnedShadow.heightMeasureSpec != hs
+				|| pinnedView.isLayoutRequested()) {
+			pinnedView.measure(ws, hs);
+			pinnedView.layout(0, 0, pinnedView.getMeasuredWidth(), pinnedView.getMeasuredHeight());
+			pinnedShadow.widthMeasureSpec = ws;
+			pinnedShadow.heightMeasureSpec = hs;
+			pinnedShadow.generation = mDataGeneration;
+		}
+		mTranslate = 0;
+
+		// initialize pinned shadow
+		pinnedShadow.view = pinnedView;
+		pinnedShadow.position = position;
+		pinnedShadow.id = id;
+
+		// store pinned shadow
+		mPinnedSection = pinnedShadow;
+	}
+
+	/** Destroy shadow wrapper for currently pinned view */
+	void destroyPinnedShadow() {
+		if (mPinnedSection != null) {
+			// keep shadow for being recycled later
+			mRecycleSection = mPinnedSection;
+			mPinnedSection = null;
+		}
+	}
+
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		super.dispatchDraw(canvas);
+
+		if (mPinnedSection != null) {
+
+			// prepare variables
+			int pLeft = getPaddingLeft();
+			int pTop = getPaddingTop();
+			View view = mPinnedSection.view;
+			int shadowSize = mShadowDrawable == null ? 0 : Math.min(mShadowSize, mSectionsDistance);
+
+			// draw child
+			canvas.save();
+
+			if (mVertical) {
+				canvas.clipRect(pLeft, pTop, pLeft + view.getWidth(), pTop + view.getHeight() + shadowSize);
+				canvas.translate(pLeft, pTop + mTranslate);
+			} else {
+				canvas.clipRect(pLeft, pTop, pLeft + view.getWidth() + shadowSize, pTop + view.getHeight());
+				canvas.translate(pLeft + mTranslate, pTop);
+			}
+			drawChild(canvas, view, getDrawingTime());
+
+			if (mShadowDrawable != null && mSectionsDistance > 0) {
+				if (mVertical) {
+					mShadowDrawable.setBounds(view.getLeft(), view.getBottom(), view.getRight(), view.getBottom() + mShadowSize);
+				} else {
+					mShadowDrawable.setBounds(view.getRight(), view.getTop(), view.getRight() + mShadowSize, view.getBottom());
+				}
+				mShadowDrawable.draw(canvas);
+			}
+
+			canvas.restore();
+		}
+	}
+
+	// -- touch handling methods
+
+	private float getMotion(MotionEvent ev) {
+		return mVertical ? ev.getY() : ev.getX();
+	}
+
+	@Override
+	public boolean onInterceptTouchEvent(MotionEvent ev) {
+		switch (ev.getAction() & MotionEvent.ACTION_MASK) {
+		case MotionEvent.ACTION_DOWN:
+			mDownMotion = mLastMotion = getMotion(ev);
+			// catch a running fling
+			mBeingDragged = !mScroller.isFinished();
+			mScroller.abortAnimation();
+			break;
+		case MotionEvent.ACTION_MOVE:
+			if (!mBeingDragged && Math.abs(getMotion(ev) - mDownMotion) > mTouchSlop) {
+				mBeingDragged = true;
+				mLastMotion = getMotion(ev);
+			}
+			break;
+		case MotionEvent.ACTION_UP:
+		case MotionEvent.ACTION_CANCEL:
+			mBeingDragged = false;
+			break;
+		}
+		return mBeingDragged;
+	}
+
+	@Override
+	public boolean onTouchEvent(MotionEvent ev) {
+		if (mVelocityTracker == null)
+			mVelocityTracker = VelocityTracker.obtain();
+		mVelocityTracker.addMovement(ev);
+
+		final float motion = getMotion(ev);
+		switch (ev.getAction() & MotionEvent.ACTION_MASK) {
+		case MotionEvent.ACTION_DOWN:
+			mScroller.abortAnimation();
+			mDownMotion = mLastMotion = motion;
+			break;
+		case MotionEvent.ACTION_MOVE:
+			if (!mBeingDragged && Math.abs(motion - mDownMotion) > mTouchSlop) {
+				mBeingDragged = true;
+				mLastMotion = motion;
+				if (getParent() != null)
+					getParent().requestDisallowInterceptTouchEvent(true);
+			}
+			if (mBeingDragged) {
+				final int delta = (int) (mLastMotion - motion);
+				// keep the fraction for the next move
+				mLastMotion -= delta;
+				trackMotionScroll(delta);
+			}
+			break;
+		case MotionEvent.ACTION_UP:
+			if (mBeingDragged) {
+				mVelocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
+				final int velocity = (int) (mVertical ? mVelocityTracker.getYVelocity() : mVelocityTracker.getXVelocity());
+				if (Math.abs(velocity) > mMinimumVelocity) {
+					if (mVertical) {
+						mScroller.fling(0, getContentOffset(), 0, -velocity, 0, 0, 0, Integer.MAX_VALUE);
+					} else {
+						mScroller.fling(getContentOffset(), 0, -velocity, 0, 0, Integer.MAX_VALUE, 0, 0);
+					}
+					post(mFlingRunnable);
+				}
+			} else {
+				performItemClickAt(ev.getX(), ev.getY());
+			}
+			endTouch();
+			break;
+		case MotionEvent.ACTION_CANCEL:
+			endTouch();
+			break;
+		}
+		return true;
+	}
+
+	private void endTouch() {
+		mBeingDragged = false;
+		if (mVelocityTracker != null) {
+			mVelocityTracker.recycle();
+			mVelocityTracker = null;
+		}
+	}
+
+	/** Clicks the pinned view or the child under the given point. */
+	boolean performItemClickAt(float x, float y) {
+		if (mPinnedSection != null) {
+			final View view = mPinnedSection.view;
+			final float left = getPaddingLeft() + (mVertical ? 0 : mTranslate);
+			final float top = getPaddingTop() + (mVertical ? mTranslate : 0);
+			if (x >= left && x < left + view.getWidth() && y >= top && y < top + view.getHeight())
+				return performItemClick(view, mPinnedSection.position, mPinnedSection.id);
+		}
+		for (int i = getChildCount() - 1; i >= 0; i--) {
+			final View child = getChildAt(i);
+			if (x >= child.getLeft() && x < child.getRight() && y >= child.getTop() && y < child.getBottom()) {
+				final int position = getPosition(child);
+				if (!mAdapter.isEnabled(position))
+					return false;
+				return performItemClick(child, position, mAdapter.getItemId(position));
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		removeCallbacks(mFlingRunnable);
+		mScroller.abortAnimation();
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader.ui;
+
+import android.widget.SectionIndexer;
+
+/**
+ * Section lookups made by {@link PinnedSectionListView} and
+ * {@link PinnedSectionGridView} on every scroll frame. They only ask the
+ * adapter, not the views, so they run on a plain JVM as well, where they are
+ * checked to allocate nothing.
+ */
+abstract class PinnedSectionFinder {
+
+	/** Returns whether the given position is a header to be pinned. */
+	abstract boolean isPinned(int position);
+
+	/** Returns the adapter as a section indexer, or null if it is none. */
+	abstract SectionIndexer getIndexer();
+
+	/** Returns the first header among the given visible positions, or -1. */
+	int findFirstVisibleSectionPosition(int firstVisibleItem, int visibleItemCount) {
+		for (int childIndex = 0; childIndex < visibleItemCount; childIndex++) {
+			int position = firstVisibleItem + childIndex;
+			if (isPinned(position))
+				return position;
+		}
+		return -1;
+	}
+
+	/** Returns the header of the section the given position belongs to, or -1. */
+	int findCurrentSectionPosition(int fromPosition) {
+		SectionIndexer indexer = getIndexer();
+		if (indexer != null) {
+			// try fast way by asking section indexer
+			int sectionPosition = indexer.getSectionForPosition(fromPosition);
+			int itemPosition = indexer.getPositionForSection(sectionPosition);
+			if (itemPosition >= 0 && itemPosition <= fromPosition && isPinned(itemPosition)) {
+				return itemPosition;
+			} // else, no luck
+		}
+
+		// try slow way by looking through to the next section item above
+		for (int position = fromPosition; position >= 0; position--) {
+			if (isPinned(position))
+				return position;
+		}
+		return -1; // no candidate found
+	}
+}
@@ -38,7 +38,6 @@ import android.widget.ListAdapter;
 import android.widget.SectionIndexer;
 import android.widget.WrapperListAdapter;
 import dev.dworks.libs.astickyheader.BuildConfig;
-import dev.dworks.libs.astickyheader.SimpleSectionedGridAdapter;
 
 /**
  * ListView capable to pin views at its top while the rest is still scrolled.
@@ -52,19 +51,47 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 		
 		int getHeaderLayoutResId();
 	} 
+
+	/** Implemented by adapters whose cells depend on the column layout of the grid. */
+	public static interface GridMetricsListener {
+		/**
+		 * Called from measure when the grid is laid out with new metrics. The
+		 * grid binds its cells again afterwards, so the adapter only has to
+		 * notify a change if the positions of its cells moved.
+		 */
+		void onGridMetricsChanged(GridMetrics metrics);
+	}
+
+	/**
+	 * Implemented by adapters which give every cell a fixed height, so the
+	 * heights of the rows are known without measuring them.
+	 */
+	public static interface FixedRowHeightAdapter {
+		/** Returns the height of the given number of leading rows, without the spacing between them. */
+		int getRowsHeight(int rowCount);
+	}
 	
 	/** Wrapper class for pinned section view and its position in the list. */
 	static class PinnedSection {
 		public View view;
 		public int position;
 		public long id;
+		// measure specs and data generation of the last measure of the view
+		int widthMeasureSpec;
+		int heightMeasureSpec;
+		int generation;
 	}
 
 	// -- class fields
 
 	private int mNumColumns;
+	private int mRequestedNumColumns;
 	private int mHorizontalSpacing;
+	private int mVerticalSpacing;
 	private int mColumnWidth;
+	private GridMetrics mGridMetrics;
+	private boolean mFullWidthHeaders;
+	private boolean mFixedMetrics;
 
 	// fields used for handling touch events
 	private final Rect mTouchRect = new Rect();
@@ -78,6 +105,9 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 	private int mSectionsDistanceY;
 	private int mShadowHeight;
 
+	/** Adapter set on this view without its wrappers, can be null. */
+	PinnedSectionGridAdapter mPinnedAdapter;
+
 	/** Delegating listener, can be null. */
 	OnScrollListener mDelegateOnScrollListener;
 
@@ -87,6 +117,19 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 	/** shadow instance with a pinned view, can be null. */
 	PinnedSection mPinnedSection;
 
+	/** Shadow prepared for the next section while it approaches the top, can be null. */
+	PinnedSection mNextSection;
+
+	/** Cached rendering of the pinned view, null unless snapshots are enabled. */
+	PinnedSectionSnapshot mPinnedSnapshot;
+
+	/** Incremented on every adapter change, measures from older generations are stale. */
+	int mDataGeneration;
+
+	// pinned view measure cache statistics
+	private int mMeasureCacheHits;
+	private int mMeasureCacheMisses;
+
 	/**
 	 * Pinned view Y-translation. We use it to stick pinned view to the next
 	 * section.
@@ -110,21 +153,26 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 			}
 
 			// get expected adapter or fail
-			PinnedSectionGridAdapter adapter = (PinnedSectionGridAdapter) getPinnedAdapter();
+			PinnedSectionGridAdapter adapter = mPinnedAdapter;
 			if (adapter == null || visibleItemCount == 0)
 				return; // nothing to do
 
-			final boolean isFirstVisibleItemSection = isItemViewTypePinned(adapter, firstVisibleItem);
-			if (isFirstVisibleItemSection) {
-				View sectionView = getChildAt(0);
+			// a header row may pin any of its cells, look through the whole first row
+			final int firstRowSection = findFirstVisibleSectionPosition(firstVisibleItem,
+					Math.min(Math.max(getNumColumns(), 1), visibleItemCount));
+			if (firstRowSection > -1) {
+				View sectionView = getChildAt(firstRowSection - firstVisibleItem);
 				if (sectionView.getTop() == getPaddingTop()) { // view sticks to
 																// the top, no
 																// need for
 																// pinned shadow
-					destroyPinnedShadow();
+					if (mPinnedSection != null && mPinnedSection.position == firstRowSection)
+						parkPinnedShadow(); // scrolled back up to it
+					else
+						destroyPinnedShadow();
 				} else { // section doesn't stick to the top, make sure we have
 							// a pinned shadow
-					ensureShadowForPosition(firstVisibleItem, firstVisibleItem, visibleItemCount);
+					ensureShadowForPosition(firstRowSection, firstVisibleItem, visibleItemCount);
 				}
 
 			} else { // section is not at the first visible position
@@ -140,15 +188,30 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 
 	};
 
+	/** Section lookups of the scroll path, asking the cached adapter. */
+	private final PinnedSectionFinder mSectionFinder = new PinnedSectionFinder() {
+		@Override
+		boolean isPinned(int position) {
+			return mPinnedAdapter.isItemViewTypePinned(position);
+		}
+
+		@Override
+		SectionIndexer getIndexer() {
+			return mPinnedAdapter instanceof SectionIndexer ? (SectionIndexer) mPinnedAdapter : null;
+		}
+	};
+
 	/** Default change observer. */
 	private final DataSetObserver mDataSetObserver = new DataSetObserver() {
 		@Override
 		public void onChanged() {
+			mDataGeneration++;
 			recreatePinnedShadow();
 		};
 
 		@Override
 		public void onInvalidated() {
+			mDataGeneration++;
 			recreatePinnedShadow();
 		}
 	};
@@ -180,6 +243,49 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 		}
 	}
 
+	/**
+	 * Draws the pinned section from a bitmap copy which is only rendered again
+	 * when another section gets pinned, the adapter changes or
+	 * {@link #invalidatePinnedSection()} is called. Useful for headers that
+	 * are expensive to draw.
+	 */
+	public void setPinnedSnapshotEnabled(boolean enabled) {
+		if (enabled == (mPinnedSnapshot != null))
+			return;
+		if (enabled) {
+			mPinnedSnapshot = new PinnedSectionSnapshot();
+		} else {
+			mPinnedSnapshot.release();
+			mPinnedSnapshot = null;
+		}
+		invalidatePinnedSection();
+	}
+
+	public boolean isPinnedSnapshotEnabled() {
+		return mPinnedSnapshot != null;
+	}
+
+	/**
+	 * Redraws the pinned section. The pinned view is not attached to this
+	 * view, so changes made to it directly have to be followed by this call.
+	 */
+	public void invalidatePinnedSection() {
+		if (mPinnedSnapshot != null)
+			mPinnedSnapshot.invalidate();
+		if (mPinnedSection != null)
+			invalidate();
+	}
+
+	/** Number of pinned views rebound without being measured again, a diagnostic counter. */
+	int getPinnedMeasureCacheHits() {
+		return mMeasureCacheHits;
+	}
+
+	/** Number of pinned views which had to be measured. */
+	int getPinnedMeasureCacheMisses() {
+		return mMeasureCacheMisses;
+	}
+
 	// -- pinned section drawing methods
 
 	public void initShadow(boolean visible) {
@@ -198,6 +304,24 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 	
 	/** Create shadow wrapper with a pinned view for a view at given position */
 	void createPinnedShadow(int position) {
+		PinnedSection pinnedShadow;
+		if (mNextSection != null && mNextSection.position == position) {
+			// prepared in advance, just swap it in
+			pinnedShadow = mNextSection;
+			mNextSection = null;
+		} else {
+			pinnedShadow = preparePinnedShadow(position);
+		}
+		mTranslateY = 0;
+
+		// store pinned shadow
+		mPinnedSection = pinnedShadow;
+		if (mPinnedSnapshot != null)
+			mPinnedSnapshot.invalidate();
+	}
+
+	/** Binds, measures and lays out a shadow for the view at given position */
+	PinnedSection preparePinnedShadow(int position) {
 
 		// try to recycle shadow
 		PinnedSection pinnedShadow = mRecycleSection;
@@ -206,12 +330,31 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 		// create new shadow, if needed
 		if (pinnedShadow == null)
 			pinnedShadow = new PinnedSection();
+		View recycledView = pinnedShadow.view;
+		long id = getAdapter().getItemId(position);
 		// request new view using recycled view, if such
 		View pinnedView = getAdapter().getView(position, pinnedShadow.view, PinnedSectionGridView.this);
 		HeaderLayout header = (HeaderLayout) pinnedView.findViewById(getPinnedAdapter().getHeaderLayoutResId());
 		header.setHeaderWidth(1);
 		pinnedView.setBackgroundColor(Color.WHITE);
 		
+		// initialize pinned shadow
+		boolean bound = pinnedView == recycledView && pinnedShadow.id == id && pinnedShadow.generation == mDataGeneration;
+		pinnedShadow.view = pinnedView;
+		measurePinnedShadow(pinnedShadow, bound);
+		pinnedShadow.position = position;
+		pinnedShadow.id = id;
+		return pinnedShadow;
+	}
+
+	/**
+	 * Measures and lays out the view of a shadow for the current size of this
+	 * view. If the view still shows what it was last measured with, measuring
+	 * is skipped as long as the measure specs did not change either.
+	 */
+	void measurePinnedShadow(PinnedSection pinnedShadow, boolean bound) {
+		View pinnedView = pinnedShadow.view;
+
 		// read layout parameters
 		LayoutParams layoutParams = (LayoutParams) pinnedView.getLayoutParams();
 		if (layoutParams == null) { // create default layout params
@@ -231,24 +374,60 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 		// measure & layout
 		int ws = MeasureSpec.makeMeasureSpec(getWidth() - getListPaddingLeft() - getListPaddingRight(), MeasureSpec.EXACTLY);
 		int hs = MeasureSpec.makeMeasureSpec(heightSize, heightMode);
+		if (bound && pinnedShadow.widthMeasureSpec == ws && pinnedShadow.heightMeasureSpec == hs) {
+			// same section rebound since the last data change, keep its layout
+			mMeasureCacheHits++;
+			return;
+		}
+		mMeasureCacheMisses++;
 		pinnedView.measure(ws, hs);
 		pinnedView.layout(0, 0, pinnedView.getMeasuredWidth(), pinnedView.getMeasuredHeight());
-		mTranslateY = 0;
+		pinnedShadow.widthMeasureSpec = ws;
+		pinnedShadow.heightMeasureSpec = hs;
+		pinnedShadow.generation = mDataGeneration;
+	}
 
-		// initialize pinned shadow
-		pinnedShadow.view = pinnedView;
-		pinnedShadow.position = position;
-		pinnedShadow.id = getAdapter().getItemId(position);
+	/**
+	 * Prepares the shadow of the next section before it reaches the top, so
+	 * that pinning it does not bind and measure a view on that frame.
+	 */
+	void prefetchPinnedShadow(int position) {
+		if (mNextSection != null) {
+			if (mNextSection.position == position)
+				return; // already prepared
+			discardNextShadow();
+		}
+		mNextSection = preparePinnedShadow(position);
+	}
 
-		// store pinned shadow
-		mPinnedSection = pinnedShadow;
+	/** Drops the prepared shadow, its view is kept for being recycled */
+	void discardNextShadow() {
+		if (mNextSection != null) {
+			if (mRecycleSection == null)
+				mRecycleSection = mNextSection;
+			mNextSection = null;
+		}
 	}
 
 	/** Destroy shadow wrapper for currently pinned view */
 	void destroyPinnedShadow() {
 		if (mPinnedSection != null) {
-			// keep shadow for being recycled later
-			mRecycleSection = mPinnedSection;
+			// keep shadow for being recycled later, unless one is kept already
+			if (mRecycleSection == null)
+				mRecycleSection = mPinnedSection;
+			mPinnedSection = null;
+		}
+	}
+
+	/**
+	 * Unpins the shadow when an earlier section takes its place while scrolling
+	 * up. It is below the new pinned section then, so it is kept as the next
+	 * shadow instead of being rebound when it gets pinned again.
+	 */
+	void parkPinnedShadow() {
+		if (mPinnedSection != null) {
+			discardNextShadow();
+			mNextSection = mPinnedSection;
 			mPinnedSection = null;
 		}
 	}
@@ -265,7 +444,10 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 																					// shadow,
 																					// if
 																					// required
-			destroyPinnedShadow();
+			if (sectionPosition < mPinnedSection.position)
+				parkPinnedShadow();
+			else
+				destroyPinnedShadow();
 		}
 
 		if (mPinnedSection == null) { // create shadow, if empty
@@ -280,6 +462,10 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 				View nextSectionView = getChildAt(nextSectionPosition - firstVisibleItem);
 				final int bottom = mPinnedSection.view.getBottom() + getPaddingTop();
 				mSectionsDistanceY = nextSectionView.getTop() - bottom;
+				if (mSectionsDistanceY < mPinnedSection.view.getHeight()) {
+					// next section is about to be pinned
+					prefetchPinnedShadow(nextSectionPosition);
+				}
 				if (mSectionsDistanceY < 0) {
 					// next section overlaps pinned shadow, move it up
 					mTranslateY = mSectionsDistanceY;
@@ -296,41 +482,16 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 	}	
 
 	int findFirstVisibleSectionPosition(int firstVisibleItem, int visibleItemCount) {
-		PinnedSectionGridAdapter adapter = getPinnedAdapter();
-		for (int childIndex = 0; childIndex < visibleItemCount; childIndex++) {
-			int position = firstVisibleItem + childIndex;
-			//int viewType = adapter.getItemViewType(position);
-			if (isItemViewTypePinned(adapter, position))
-				return position;
-		}
-		return -1;
+		return mSectionFinder.findFirstVisibleSectionPosition(firstVisibleItem, visibleItemCount);
 	}
 
 	int findCurrentSectionPosition(int fromPosition) {
-		PinnedSectionGridAdapter adapter = getPinnedAdapter();
-
-		if (adapter instanceof SectionIndexer) {
-			// try fast way by asking section indexer
-			SectionIndexer indexer = (SectionIndexer) adapter;
-			int sectionPosition = indexer.getSectionForPosition(fromPosition);
-			int itemPosition = indexer.getPositionForSection(sectionPosition);
-			//int typeView = adapter.getItemViewType(itemPosition);
-			if (isItemViewTypePinned(adapter, itemPosition)) {
-				return itemPosition;
-			} // else, no luck
-		}
-
-		// try slow way by looking through to the next section item above
-		for (int position = fromPosition; position >= 0; position--) {
-			//int viewType = adapter.getItemViewType(position);
-			if (isItemViewTypePinned(adapter, position))
-				return position;
-		}
-		return -1; // no candidate found
+		return mSectionFinder.findCurrentSectionPosition(fromPosition);
 	}
 
 	void recreatePinnedShadow() {
 		destroyPinnedShadow();
+		discardNextShadow();
 		ListAdapter adapter = getAdapter();
 		if (adapter != null && adapter.getCount() > 0) {
 			int firstVisiblePosition = getFirstVisiblePosition();
@@ -381,8 +542,19 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 			adapter.registerDataSetObserver(mDataSetObserver);
 
 		// destroy pinned shadow, if new adapter is not same as old one
-		if (oldAdapter != adapter)
+		mDataGeneration++;
+		if (oldAdapter != adapter) {
 			destroyPinnedShadow();
+			discardNextShadow();
+			// its view came from the old adapter
+			mRecycleSection = null;
+		}
+
+		// unwrap once here instead of on every scroll frame
+		ListAdapter pinnedAdapter = adapter;
+		while (pinnedAdapter instanceof WrapperListAdapter)
+			pinnedAdapter = ((WrapperListAdapter) pinnedAdapter).getWrappedAdapter();
+		mPinnedAdapter = (PinnedSectionGridAdapter) pinnedAdapter;
 
 		super.setAdapter(adapter);
 	}
@@ -394,7 +566,12 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 			int parentWidth = r - l - getPaddingLeft() - getPaddingRight();
 			int shadowWidth = mPinnedSection.view.getWidth();
 			if (parentWidth != shadowWidth) {
-				recreatePinnedShadow();
+				// only the size changed, lay out the bound shadows again
+				measurePinnedShadow(mPinnedSection, true);
+				if (mNextSection != null)
+					measurePinnedShadow(mNextSection, true);
+				if (mPinnedSnapshot != null)
+					mPinnedSnapshot.invalidate();
 			}
 		}
 	}
@@ -417,7 +594,11 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 			canvas.clipRect(pLeft, pTop, pLeft + view.getWidth(), pTop + clipHeight);
 
 			canvas.translate(pLeft, pTop + mTranslateY);
-			drawChild(canvas, mPinnedSection.view, getDrawingTime());
+			if (mPinnedSnapshot != null) {
+				mPinnedSnapshot.draw(canvas, mPinnedSection.view);
+			} else {
+				drawChild(canvas, mPinnedSection.view, getDrawingTime());
+			}
 
 			if (mShadowDrawable != null && mSectionsDistanceY > 0) {
 				mShadowDrawable.setBounds(mPinnedSection.view.getLeft(), mPinnedSection.view.getBottom(), mPinnedSection.view.getRight(), mPinnedSection.view.getBottom() + mShadowHeight);
@@ -428,6 +609,13 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 		}
 	}
 
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		if (mPinnedSnapshot != null)
+			mPinnedSnapshot.release();
+	}
+
 	// -- touch handling methods
 
 	@Override
@@ -451,6 +639,8 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 			if (isPinnedViewTouched(mTouchTarget, x, y)) { // forward event to
 															// pinned view
 				mTouchTarget.dispatchTouchEvent(ev);
+				// the pressed state may have changed
+				invalidatePinnedSection();
 			}
 
 			if (action == MotionEvent.ACTION_UP) { // perform onClick on pinned
@@ -534,15 +724,12 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 	}
 	
     private PinnedSectionGridAdapter getPinnedAdapter() {
-        PinnedSectionGridAdapter adapter;
-        if (getAdapter() instanceof WrapperListAdapter)
-            adapter= (PinnedSectionGridAdapter) ((WrapperListAdapter)getAdapter()).getWrappedAdapter();
-        else adapter = (PinnedSectionGridAdapter) getAdapter();
-        return adapter;
+        return mPinnedAdapter;
     }
     
 	@Override
 	public void setNumColumns(int numColumns) {
+		mRequestedNumColumns = numColumns;
 		mNumColumns = numColumns;
 		super.setNumColumns(numColumns);
 	}
@@ -560,6 +747,16 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 	public int getHorizontalSpacing(){
 		return mHorizontalSpacing;
 	}
+
+	@Override
+	public void setVerticalSpacing(int verticalSpacing) {
+		mVerticalSpacing = verticalSpacing;
+		super.setVerticalSpacing(verticalSpacing);
+	}
+
+	public int getVerticalSpacing(){
+		return mVerticalSpacing;
+	}
 	
 	@Override
 	public void setColumnWidth(int columnWidth) {
@@ -575,9 +772,102 @@ public class PinnedSectionGridView extends AutoScrollGridView {
 		return mAvailableWidth != 0 ? mAvailableWidth : getWidth();
 	}
 
+	/**
+	 * Pins only the header cell of a header row instead of the whole row. The
+	 * other cells of the row are empty placeholders in place of header views,
+	 * but GridView still lays out one child per column, so the row keeps as
+	 * many children as without this mode.
+	 */
+	public void setFullWidthHeaders(boolean fullWidth) {
+		if (mFullWidthHeaders == fullWidth)
+			return;
+		mFullWidthHeaders = fullWidth;
+		// the adapter hands out other views for the header rows now
+		invalidateViews();
+		recreatePinnedShadow();
+	}
+
+	public boolean isFullWidthHeaders() {
+		return mFullWidthHeaders;
+	}
+
+	/**
+	 * Trusts the heights of a {@link FixedRowHeightAdapter}: the scroll offset
+	 * and range are computed from the row heights in constant time instead of
+	 * being estimated from the children. Cells such an adapter rebinds with an
+	 * unchanged size do not request a layout, so recycled cells are not
+	 * measured again either.
+	 */
+	public void setFixedMetricsEnabled(boolean enabled) {
+		mFixedMetrics = enabled;
+		awakenScrollBars();
+	}
+
+	public boolean isFixedMetricsEnabled() {
+		return mFixedMetrics;
+	}
+
+	private FixedRowHeightAdapter getFixedRowHeightAdapter() {
+		return mFixedMetrics && mPinnedAdapter instanceof FixedRowHeightAdapter
+				? (FixedRowHeightAdapter) mPinnedAdapter
+				: null;
+	}
+
+	/** Returns the height of the given number of leading rows, including the spacing between them. */
+	private int getRowsTop(FixedRowHeightAdapter adapter, int rowCount) {
+		return adapter.getRowsHeight(rowCount) + Math.max(rowCount - 1, 0) * mVerticalSpacing;
+	}
+
+	@Override
+	protected int computeVerticalScrollOffset() {
+		FixedRowHeightAdapter adapter = getFixedRowHeightAdapter();
+		if (adapter == null || getChildCount() == 0)
+			return super.computeVerticalScrollOffset();
+		int row = getFirstVisiblePosition() / getGridMetrics().getNumColumns();
+		int rowTop = getRowsTop(adapter, row) + (row > 0 ? mVerticalSpacing : 0);
+		return Math.max(rowTop + getPaddingTop() - getChildAt(0).getTop(), 0);
+	}
+
+	@Override
+	protected int computeVerticalScrollRange() {
+		FixedRowHeightAdapter adapter = getFixedRowHeightAdapter();
+		if (adapter == null)
+			return super.computeVerticalScrollRange();
+		int columns = getGridMetrics().getNumColumns();
+		int rows = (getAdapter().getCount() + columns - 1) / columns;
+		return getRowsTop(adapter, rows);
+	}
+
+	/** Offset, range and extent all count content pixels, the padding is in none of them. */
+	@Override
+	protected int computeVerticalScrollExtent() {
+		if (getFixedRowHeightAdapter() == null)
+			return super.computeVerticalScrollExtent();
+		return getHeight() - getPaddingTop() - getPaddingBottom();
+	}
+
+	/** Returns the column layout of the last measure. */
+	public GridMetrics getGridMetrics() {
+		if (mGridMetrics == null)
+			updateGridMetrics(getAvailableWidth());
+		return mGridMetrics;
+	}
+
+	/** Creates new metrics if any of their inputs changed, returns whether it did. */
+	private boolean updateGridMetrics(int width) {
+		int availableWidth = width - getPaddingLeft() - getPaddingRight();
+		int stretchMode = getStretchMode();
+		if (mGridMetrics != null
+				&& mGridMetrics.matches(availableWidth, mNumColumns, mColumnWidth, mHorizontalSpacing, stretchMode))
+			return false;
+		mGridMetrics = new GridMetrics(availableWidth, mNumColumns, mColumnWidth, mHorizontalSpacing, stretchMode);
+		return true;
+	}
+
 	@Override
 	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        if (mNumColumns == GridView.AUTO_FIT) {
+        // recounted on every measure, so a resize or rotation changes the columns
+        if (mRequestedNumColumns == GridView.AUTO_FIT) {
         	mAvailableWidth = MeasureSpec.getSize(widthMeasureSpec);
             if (mColumnWidth > 0) {
             	int availableSpace = MeasureSpec.getSize(widthMeasureSpec) - getPaddingLeft() - getPaddingRight();
@@ -588,11 +878,13 @@ public class PinnedSectionGridView extends AutoScrollGridView {
                 // Just make up a number if we don't have enough info
                 mNumColumns = 2;
             }
-            if(null != getAdapter()){
-            	if(getAdapter() instanceof SimpleSectionedGridAdapter){
-            		((SimpleSectionedGridAdapter)getAdapter()).setSections();
-            	}
-            }
+        }
+        if (updateGridMetrics(MeasureSpec.getSize(widthMeasureSpec))
+        		&& mPinnedAdapter instanceof GridMetricsListener) {
+        	((GridMetricsListener) mPinnedAdapter).onGridMetricsChanged(mGridMetrics);
+        	// cells are sized from the metrics, bind them again without notifying
+        	// the data observers, the pinned shadows are only laid out again
+        	invalidateViews();
         }
 		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 	}
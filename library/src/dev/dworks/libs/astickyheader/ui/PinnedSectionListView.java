@@ -64,6 +64,10 @@ public class PinnedSectionListView extends AutoScrollListView {
 		public View view;
 		public int position;
 		public long id;
+		// measure specs and data generation of the last measure of the view
+		int widthMeasureSpec;
+		int heightMeasureSpec;
+		int generation;
 	}
 
 	// -- class fields
@@ -80,6 +84,9 @@ public class PinnedSectionListView extends AutoScrollListView {
 	private int mSectionsDistanceY;
 	private int mShadowHeight;
 
+	/** Adapter set on this view without its wrappers, can be null. */
+	PinnedSectionListAdapter mPinnedAdapter;
+
 	/** Delegating listener, can be null. */
 	OnScrollListener mDelegateOnScrollListener;
 
@@ -89,6 +96,19 @@ public class PinnedSectionListView extends AutoScrollListView {
 	/** shadow instance with a pinned view, can be null. */
 	PinnedSection mPinnedSection;
 
+	/** Shadow prepared for the next section while it approaches the top, can be null. */
+	PinnedSection mNextSection;
+
+	/** Cached rendering of the pinned view, null unless snapshots are enabled. */
+	PinnedSectionSnapshot mPinnedSnapshot;
+
+	/** Incremented on every adapter change, measures from older generations are stale. */
+	int mDataGeneration;
+
+	// pinned view measure cache statistics
+	private int mMeasureCacheHits;
+	private int mMeasureCacheMisses;
+
 	/**
 	 * Pinned view Y-translation. We use it to stick pinned view to the next
 	 * section.
@@ -113,7 +133,7 @@ public class PinnedSectionListView extends AutoScrollListView {
 			}
 
 			// get expected adapter or fail
-			PinnedSectionListAdapter adapter = (PinnedSectionListAdapter) getPinnedAdapter();
+			PinnedSectionListAdapter adapter = mPinnedAdapter;
 			if (adapter == null || visibleItemCount == 0)
 				return; // nothing to do
 
@@ -125,7 +145,10 @@ public class PinnedSectionListView extends AutoScrollListView {
 																// the top, no
 																// need for
 																// pinned shadow
-					destroyPinnedShadow();
+					if (mPinnedSection != null && mPinnedSection.position == firstVisibleItem)
+						parkPinnedShadow(); // scrolled back up to it
+					else
+						destroyPinnedShadow();
 				} else { // section doesn't stick to the top, make sure we have
 							// a pinned shadow
 					ensureShadowForPosition(firstVisibleItem, firstVisibleItem, visibleItemCount);
@@ -144,15 +167,30 @@ public class PinnedSectionListView extends AutoScrollListView {
 
 	};
 
+	/** Section lookups of the scroll path, asking the cached adapter. */
+	private final PinnedSectionFinder mSectionFinder = new PinnedSectionFinder() {
+		@Override
+		boolean isPinned(int position) {
+			return mPinnedAdapter.isItemViewTypePinned(position);
+		}
+
+		@Override
+		SectionIndexer getIndexer() {
+			return mPinnedAdapter instanceof SectionIndexer ? (SectionIndexer) mPinnedAdapter : null;
+		}
+	};
+
 	/** Default change observer. */
 	private final DataSetObserver mDataSetObserver = new DataSetObserver() {
 		@Override
 		public void onChanged() {
+			mDataGeneration++;
 			recreatePinnedShadow();
 		};
 
 		@Override
 		public void onInvalidated() {
+			mDataGeneration++;
 			recreatePinnedShadow();
 		}
 	};
@@ -185,6 +223,49 @@ public class PinnedSectionListView extends AutoScrollListView {
 		}
 	}
 
+	/**
+	 * Draws the pinned section from a bitmap copy which is only rendered again
+	 * when another section gets pinned, the adapter changes or
+	 * {@link #invalidatePinnedSection()} is called. Useful for headers that
+	 * are expensive to draw.
+	 */
+	public void setPinnedSnapshotEnabled(boolean enabled) {
+		if (enabled == (mPinnedSnapshot != null))
+			return;
+		if (enabled) {
+			mPinnedSnapshot = new PinnedSectionSnapshot();
+		} else {
+			mPinnedSnapshot.release();
+			mPinnedSnapshot = null;
+		}
+		invalidatePinnedSection();
+	}
+
+	public boolean isPinnedSnapshotEnabled() {
+		return mPinnedSnapshot != null;
+	}
+
+	/**
+	 * Redraws the pinned section. The pinned view is not attached to this
+	 * view, so changes made to it directly have to be followed by this call.
+	 */
+	public void invalidatePinnedSection() {
+		if (mPinnedSnapshot != null)
+			mPinnedSnapshot.invalidate();
+		if (mPinnedSection != null)
+			invalidate();
+	}
+
+	/** Number of pinned views rebound without being measured again, a diagnostic counter. */
+	int getPinnedMeasureCacheHits() {
+		return mMeasureCacheHits;
+	}
+
+	/** Number of pinned views which had to be measured. */
+	int getPinnedMeasureCacheMisses() {
+		return mMeasureCacheMisses;
+	}
+
 	// -- pinned section drawing methods
 
 	public void initShadow(boolean visible) {
@@ -203,6 +284,24 @@ public class PinnedSectionListView extends AutoScrollListView {
 
 	/** Create shadow wrapper with a pinned view for a view at given position */
 	void createPinnedShadow(int position) {
+		PinnedSection pinnedShadow;
+		if (mNextSection != null && mNextSection.position == position) {
+			// prepared in advance, just swap it in
+			pinnedShadow = mNextSection;
+			mNextSection = null;
+		} else {
+			pinnedShadow = preparePinnedShadow(position);
+		}
+		mTranslateY = 0;
+
+		// store pinned shadow
+		mPinnedSection = pinnedShadow;
+		if (mPinnedSnapshot != null)
+			mPinnedSnapshot.invalidate();
+	}
+
+	/** Binds, measures and lays out a shadow for the view at given position */
+	PinnedSection preparePinnedShadow(int position) {
 
 		// try to recycle shadow
 		PinnedSection pinnedShadow = mRecycleSection;
@@ -211,10 +310,29 @@ public class PinnedSectionListView extends AutoScrollListView {
 		// create new shadow, if needed
 		if (pinnedShadow == null)
 			pinnedShadow = new PinnedSection();
+		View recycledView = pinnedShadow.view;
+		long id = getAdapter().getItemId(position);
 		// request new view using recycled view, if such
 		View pinnedView = getAdapter().getView(position, pinnedShadow.view, PinnedSectionListView.this);
 		pinnedView.setBackgroundColor(Color.WHITE);
 		
+		// initialize pinned shadow
+		boolean bound = pinnedView == recycledView && pinnedShadow.id == id && pinnedShadow.generation == mDataGeneration;
+		pinnedShadow.view = pinnedView;
+		measurePinnedShadow(pinnedShadow, bound);
+		pinnedShadow.position = position;
+		pinnedShadow.id = id;
+		return pinnedShadow;
+	}
+
+	/**
+	 * Measures and lays out the view of a shadow for the current size of this
+	 * view. If the view still shows what it was last measured with, measuring
+	 * is skipped as long as the measure specs did not change either.
+	 */
+	void measurePinnedShadow(PinnedSection pinnedShadow, boolean bound) {
+		View pinnedView = pinnedShadow.view;
+
 		// read layout parameters
 		LayoutParams layoutParams = (LayoutParams) pinnedView.getLayoutParams();
 		if (layoutParams == null) { // create default layout params
@@ -234,24 +352,60 @@ public class PinnedSectionListView extends AutoScrollListView {
 		// measure & layout
 		int ws = MeasureSpec.makeMeasureSpec(getWidth() - getListPaddingLeft() - getListPaddingRight(), MeasureSpec.EXACTLY);
 		int hs = MeasureSpec.makeMeasureSpec(heightSize, heightMode);
+		if (bound && pinnedShadow.widthMeasureSpec == ws && pinnedShadow.heightMeasureSpec == hs) {
+			// same section rebound since the last data change, keep its layout
+			mMeasureCacheHits++;
+			return;
+		}
+		mMeasureCacheMisses++;
 		pinnedView.measure(ws, hs);
 		pinnedView.layout(0, 0, pinnedView.getMeasuredWidth(), pinnedView.getMeasuredHeight());
-		mTranslateY = 0;
+		pinnedShadow.widthMeasureSpec = ws;
+		pinnedShadow.heightMeasureSpec = hs;
+		pinnedShadow.generation = mDataGeneration;
+	}
 
-		// initialize pinned shadow
-		pinnedShadow.view = pinnedView;
-		pinnedShadow.position = position;
-		pinnedShadow.id = getAdapter().getItemId(position);
+	/**
+	 * Prepares the shadow of the next section before it reaches the top, so
+	 * that pinning it does not bind and measure a view on that frame.
+	 */
+	void prefetchPinnedShadow(int position) {
+		if (mNextSection != null) {
+			if (mNextSection.position == position)
+				return; // already prepared
+			discardNextShadow();
+		}
+		mNextSection = preparePinnedShadow(position);
+	}
 
-		// store pinned shadow
-		mPinnedSection = pinnedShadow;
+	/** Drops the prepared shadow, its view is kept for being recycled */
+	void discardNextShadow() {
+		if (mNextSection != null) {
+			if (mRecycleSection == null)
+				mRecycleSection = mNextSection;
+			mNextSection = null;
+		}
 	}
 
 	/** Destroy shadow wrapper for currently pinned view */
 	void destroyPinnedShadow() {
 		if (mPinnedSection != null) {
-			// keep shadow for being recycled later
-			mRecycleSection = mPinnedSection;
+			// keep shadow for being recycled later, unless one is kept already
+			if (mRecycleSection == null)
+				mRecycleSection = mPinnedSection;
+			mPinnedSection = null;
+		}
+	}
+
+	/**
+	 * Unpins the shadow when an earlier section takes its place while scrolling
+	 * up. It is below the new pinned section then, so it is kept as the next
+	 * shadow instead of being rebound when it gets pinned again.
+	 */
+	void parkPinnedShadow() {
+		if (mPinnedSection != null) {
+			discardNextShadow();
+			mNextSection = mPinnedSection;
 			mPinnedSection = null;
 		}
 	}
@@ -268,7 +422,10 @@ public class PinnedSectionListView extends AutoScrollListView {
 																					// shadow,
 																					// if
 																					// required
-			destroyPinnedShadow();
+			if (sectionPosition < mPinnedSection.position)
+				parkPinnedShadow();
+			else
+				destroyPinnedShadow();
 		}
 
 		if (mPinnedSection == null) { // create shadow, if empty
@@ -283,6 +440,10 @@ public class PinnedSectionListView extends AutoScrollListView {
 				View nextSectionView = getChildAt(nextSectionPosition - firstVisibleItem);
 				final int bottom = mPinnedSection.view.getBottom() + getPaddingTop();
 				mSectionsDistanceY = nextSectionView.getTop() - bottom;
+				if (mSectionsDistanceY < mPinnedSection.view.getHeight()) {
+					// next section is about to be pinned
+					prefetchPinnedShadow(nextSectionPosition);
+				}
 				if (mSectionsDistanceY < 0) {
 					// next section overlaps pinned shadow, move it up
 					mTranslateY = mSectionsDistanceY;
@@ -300,41 +461,16 @@ public class PinnedSectionListView extends AutoScrollListView {
 	}
 
 	int findFirstVisibleSectionPosition(int firstVisibleItem, int visibleItemCount) {
-		PinnedSectionListAdapter adapter = getPinnedAdapter();
-		for (int childIndex = 0; childIndex < visibleItemCount; childIndex++) {
-			int position = firstVisibleItem + childIndex;
-			//int viewType = adapter.getItemViewType(position);
-			if (isItemViewTypePinned(adapter, position))
-				return position;
-		}
-		return -1;
+		return mSectionFinder.findFirstVisibleSectionPosition(firstVisibleItem, visibleItemCount);
 	}
 
 	int findCurrentSectionPosition(int fromPosition) {
-		PinnedSectionListAdapter adapter = getPinnedAdapter();
-
-		if (adapter instanceof SectionIndexer) {
-			// try fast way by asking section indexer
-			SectionIndexer indexer = (SectionIndexer) adapter;
-			int sectionPosition = indexer.getSectionForPosition(fromPosition);
-			int itemPosition = indexer.getPositionForSection(sectionPosition);
-			//int typeView = adapter.getItemViewType(itemPosition);
-			if (isItemViewTypePinned(adapter, itemPosition)) {
-				return itemPosition;
-			} // else, no luck
-		}
-
-		// try slow way by looking through to the next section item above
-		for (int position = fromPosition; position >= 0; position--) {
-			//int viewType = adapter.getItemViewType(position);
-			if (isItemViewTypePinned(adapter, position))
-				return position;
-		}
-		return -1; // no candidate found
+		return mSectionFinder.findCurrentSectionPosition(fromPosition);
 	}
 
 	void recreatePinnedShadow() {
 		destroyPinnedShadow();
+		discardNextShadow();
 		ListAdapter adapter = getAdapter();
 		if (adapter != null && adapter.getCount() > 0) {
 			int firstVisiblePosition = getFirstVisiblePosition();
@@ -385,8 +521,19 @@ public class PinnedSectionListView extends AutoScrollListView {
 			adapter.registerDataSetObserver(mDataSetObserver);
 
 		// destroy pinned shadow, if new adapter is not same as old one
-		if (oldAdapter != adapter)
+		mDataGeneration++;
+		if (oldAdapter != adapter) {
 			destroyPinnedShadow();
+			discardNextShadow();
+			// its view came from the old adapter
+			mRecycleSection = null;
+		}
+
+		// unwrap once here instead of on every scroll frame
+		ListAdapter pinnedAdapter = adapter;
+		while (pinnedAdapter instanceof WrapperListAdapter)
+			pinnedAdapter = ((WrapperListAdapter) pinnedAdapter).getWrappedAdapter();
+		mPinnedAdapter = (PinnedSectionListAdapter) pinnedAdapter;
 
 		super.setAdapter(adapter);
 	}
@@ -398,7 +545,12 @@ public class PinnedSectionListView extends AutoScrollListView {
 			int parentWidth = r - l - getPaddingLeft() - getPaddingRight();
 			int shadowWidth = mPinnedSection.view.getWidth();
 			if (parentWidth != shadowWidth) {
-				recreatePinnedShadow();
+				// only the size changed, lay out the bound shadows again
+				measurePinnedShadow(mPinnedSection, true);
+				if (mNextSection != null)
+					measurePinnedShadow(mNextSection, true);
+				if (mPinnedSnapshot != null)
+					mPinnedSnapshot.invalidate();
 			}
 		}
 	}
@@ -421,7 +573,11 @@ public class PinnedSectionListView extends AutoScrollListView {
 			canvas.clipRect(pLeft, pTop, pLeft + view.getWidth(), pTop + clipHeight);
 
 			canvas.translate(pLeft, pTop + mTranslateY);
-			drawChild(canvas, mPinnedSection.view, getDrawingTime());
+			if (mPinnedSnapshot != null) {
+				mPinnedSnapshot.draw(canvas, mPinnedSection.view);
+			} else {
+				drawChild(canvas, mPinnedSection.view, getDrawingTime());
+			}
 
 			if (mShadowDrawable != null && mSectionsDistanceY > 0) {
 				mShadowDrawable.setBounds(mPinnedSection.view.getLeft(), mPinnedSection.view.getBottom(), mPinnedSection.view.getRight(), mPinnedSection.view.getBottom() + mShadowHeight);
@@ -432,6 +588,13 @@ public class PinnedSectionListView extends AutoScrollListView {
 		}
 	}
 
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		if (mPinnedSnapshot != null)
+			mPinnedSnapshot.release();
+	}
+
 	// -- touch handling methods
 
 	@Override
@@ -455,6 +618,8 @@ public class PinnedSectionListView extends AutoScrollListView {
 			if (isPinnedViewTouched(mTouchTarget, x, y)) { // forward event to
 															// pinned view
 				mTouchTarget.dispatchTouchEvent(ev);
+				// the pressed state may have changed
+				invalidatePinnedSection();
 			}
 
 			if (action == MotionEvent.ACTION_UP) { // perform onClick on pinned
@@ -536,12 +701,4 @@ public class PinnedSectionListView extends AutoScrollListView {
 		}
 		return ((PinnedSectionListAdapter) adapter).isItemViewTypePinned(position);
 	}
-	
-    private PinnedSectionListAdapter getPinnedAdapter() {
-        PinnedSectionListAdapter adapter;
-        if (getAdapter() instanceof WrapperListAdapter)
-            adapter= (PinnedSectionListAdapter) ((WrapperListAdapter)getAdapter()).getWrappedAdapter();
-        else adapter = (PinnedSectionListAdapter) getAdapter();
-        return adapter;
-    }
 }
\ No newline at end of file
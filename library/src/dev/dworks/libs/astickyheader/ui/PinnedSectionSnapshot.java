@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader.ui;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.view.View;
+
+/**
+ * Bitmap copy of a pinned section view. The pinned view is not attached to the
+ * window, so once rendered the copy is drawn as is until the pinned section
+ * changes or {@link #invalidate()} is called.
+ */
+class PinnedSectionSnapshot {
+	private final Canvas mCanvas = new Canvas();
+	private Bitmap mBitmap;
+	private boolean mValid;
+
+	/** Marks the copy as stale, it is rendered again on the next draw. */
+	public void invalidate() {
+		mValid = false;
+	}
+
+	/** Draws the view from its copy, rendering the copy first if it is stale. */
+	public void draw(Canvas canvas, View view) {
+		final int width = view.getWidth();
+		final int height = view.getHeight();
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		if (mBitmap == null || mBitmap.getWidth() != width || mBitmap.getHeight() != height) {
+			release();
+			mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+			mCanvas.setBitmap(mBitmap);
+		}
+		if (!mValid) {
+			mCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+			view.draw(mCanvas);
+			mValid = true;
+		}
+		canvas.drawBitmap(mBitmap, view.getLeft(), view.getTop(), null);
+	}
+
+	/** Frees the bitmap, the next draw allocates a new one. */
+	public void release() {
+		if (mBitmap != null) {
+			mBitmap.recycle();
+			mBitmap = null;
+		}
+		mValid = false;
+	}
+}
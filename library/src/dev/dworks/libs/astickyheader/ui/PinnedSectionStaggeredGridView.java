@@ -0,0 +1,450 @@
+/*
+ * Copyright 2014 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader.ui;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ListAdapter;
+
+/**
+ * Staggered grid which pins section headers at its top like
+ * {@link PinnedSectionListView}. Items keep their measured height and are
+ * placed in the currently shortest column; a header spans all columns and
+ * starts below the tallest one. It takes the adapters of PinnedSectionListView,
+ * where a section header is a single position.
+ * <p>
+ * Top, bottom and column of every position laid out so far are cached in
+ * primitive arrays. Positions are only measured once they scroll into view and
+ * scrolling back reuses the cached geometry. Every header lines the columns up,
+ * so the layout can restart at any section from the cache alone: appending
+ * items to an adapter with stable ids keeps all of it.
+ */
+public class PinnedSectionStaggeredGridView extends PinnedSectionAdapterView {
+
+	private int mNumColumns = 2;
+	private int mItemMargin;
+	private int mColumnWidth;
+	private int mLayoutWidth;
+	private int mPendingSelection = INVALID_POSITION;
+
+	// layout cache, valid for the first mLaidOutCount positions
+	private int[] mTops = new int[0];
+	private int[] mBottoms = new int[0];
+	private int[] mColumns = new int[0];
+	/** Largest bottom of the positions up to each one, used to find the first visible one. */
+	private int[] mMaxBottoms = new int[0];
+	private int[] mColumnBottoms = new int[mNumColumns];
+
+	/** Content offset of the top of the viewport. */
+	private int mScrollY;
+
+	// children
+	private boolean[] mAttached = new boolean[16];
+	private final ArrayList<View> mMeasuredViews = new ArrayList<View>();
+
+	public PinnedSectionStaggeredGridView(Context context) {
+		this(context, null);
+	}
+
+	public PinnedSectionStaggeredGridView(Context context, AttributeSet attrs) {
+		this(context, attrs, 0);
+	}
+
+	public PinnedSectionStaggeredGridView(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle, true);
+	}
+
+	// -- public API methods
+
+	public void setNumColumns(int numColumns) {
+		numColumns = Math.max(numColumns, 1);
+		if (numColumns == mNumColumns)
+			return;
+		mNumColumns = numColumns;
+		mColumnBottoms = new int[numColumns];
+		mLayoutWidth = 0; // measure everything again for the new column width
+		resetLayout();
+		requestLayout();
+	}
+
+	public int getNumColumns() {
+		return mNumColumns;
+	}
+
+	/** Sets the space between columns and between vertically adjacent cells. */
+	public void setItemMargin(int itemMargin) {
+		if (itemMargin == mItemMargin)
+			return;
+		mItemMargin = itemMargin;
+		mLayoutWidth = 0;
+		resetLayout();
+		requestLayout();
+	}
+
+	public int getItemMargin() {
+		return mItemMargin;
+	}
+
+	@Override
+	public void setAdapter(ListAdapter adapter) {
+		super.setAdapter(adapter);
+		mScrollY = 0;
+	}
+
+	/** Scrolls the given position to the top. */
+	@Override
+	public void setSelection(int position) {
+		if (mAdapter == null || position < 0 || position >= mAdapterCount)
+			return;
+		if (mLayoutWidth == 0) {
+			mPendingSelection = position; // applied on layout
+			return;
+		}
+		while (mLaidOutCount <= position) {
+			layoutNext(Integer.MAX_VALUE, Integer.MIN_VALUE);
+		}
+		recycleMeasuredViews();
+		trackMotionScroll(mTops[position] - mScrollY);
+	}
+
+	@Override
+	public int getFirstVisiblePosition() {
+		int first = INVALID_POSITION;
+		for (int i = getChildCount() - 1; i >= 0; i--) {
+			final int position = getPosition(getChildAt(i));
+			if (first == INVALID_POSITION || position < first)
+				first = position;
+		}
+		return first;
+	}
+
+	@Override
+	public int getLastVisiblePosition() {
+		int last = INVALID_POSITION;
+		for (int i = getChildCount() - 1; i >= 0; i--) {
+			last = Math.max(last, getPosition(getChildAt(i)));
+		}
+		return last;
+	}
+
+	// -- layout
+
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		final int width = r - l - getPaddingLeft() - getPaddingRight();
+		if (width != mLayoutWidth) {
+			mLayoutWidth = width;
+			mColumnWidth = (width - (mNumColumns - 1) * mItemMargin) / mNumColumns;
+			resetLayout();
+		}
+		if (mPendingSelection != INVALID_POSITION) {
+			final int position = mPendingSelection;
+			mPendingSelection = INVALID_POSITION;
+			setSelection(position);
+		}
+		// the content may have shrunk below the viewport
+		if (!trackMotionScroll(0))
+			fill();
+	}
+
+	@Override
+	void resetLayout() {
+		mLaidOutCount = 0;
+		mHeaderCount = 0;
+		for (int i = 0; i < mNumColumns; i++) {
+			mColumnBottoms[i] = 0;
+		}
+		recycleChildren();
+		destroyPinnedShadow();
+	}
+
+	/** Restarts the layout at the section of the given position, where all columns are lined up. */
+	@Override
+	void rewindLayout(int position) {
+		if (position >= mLaidOutCount) {
+			recycleChildren(); // rebind them
+			destroyPinnedShadow();
+			return;
+		}
+		final int header = findHeaderForPosition(position);
+		if (header < 0) {
+			resetLayout();
+			return;
+		}
+		final int start = mHeaderPositions[header];
+		final int bottom = start == 0 ? 0 : mMaxBottoms[start - 1];
+		for (int i = 0; i < mNumColumns; i++) {
+			mColumnBottoms[i] = bottom;
+		}
+		mHeaderCount = header;
+		mLaidOutCount = start;
+		recycleChildren();
+		destroyPinnedShadow();
+	}
+
+	/** Top the next position will be laid out at. */
+	private int getNextTop() {
+		int bottom = mColumnBottoms[0];
+		final boolean header = PinnedSectionListView.isItemViewTypePinned(mAdapter, mLaidOutCount);
+		for (int i = 1; i < mNumColumns; i++) {
+			bottom = header ? Math.max(bottom, mColumnBottoms[i]) : Math.min(bottom, mColumnBottoms[i]);
+		}
+		return bottom == 0 ? 0 : bottom + mItemMargin;
+	}
+
+	/**
+	 * Measures the next position and caches its geometry. The measured view is
+	 * kept for attaching if it falls into the given content range.
+	 */
+	private void layoutNext(int viewportTop, int viewportBottom) {
+		final int position = mLaidOutCount;
+		ensureCapacity(position + 1);
+		final boolean header = PinnedSectionListView.isItemViewTypePinned(mAdapter, position);
+		final int top = getNextTop();
+		int column = -1;
+		if (!header) {
+			column = 0;
+			for (int i = 1; i < mNumColumns; i++) {
+				if (mColumnBottoms[i] < mColumnBottoms[column])
+					column = i;
+			}
+		}
+
+		final View view = obtainView(position);
+		measureChild(view, header);
+		final int bottom = top + view.getMeasuredHeight();
+		if (header) {
+			for (int i = 0; i < mNumColumns; i++) {
+				mColumnBottoms[i] = bottom;
+			}
+			addHeader(position, top);
+		} else {
+			mColumnBottoms[column] = bottom;
+		}
+		mTops[position] = top;
+		mBottoms[position] = bottom;
+		mColumns[position] = column;
+		mMaxBottoms[position] = position == 0 ? bottom : Math.max(mMaxBottoms[position - 1], bottom);
+		mIds[position] = mAdapter.getItemId(position);
+		mLaidOutCount++;
+
+		if (bottom > viewportTop && top < viewportBottom) {
+			mMeasuredViews.add(view);
+		} else {
+			addScrapView(view);
+		}
+	}
+
+	/** Lays out positions until the given content offset is covered. */
+	private void extendLayout(int viewportTop, int viewportBottom) {
+		while (mLaidOutCount < mAdapterCount && getNextTop() < viewportBottom) {
+			layoutNext(viewportTop, viewportBottom);
+		}
+	}
+
+	/** Attaches the visible positions and recycles the children which left the viewport. */
+	private void fill() {
+		if (mAdapter == null || mLayoutWidth <= 0) {
+			recycleMeasuredViews();
+			return;
+		}
+		final int viewportTop = mScrollY;
+		final int viewportBottom = mScrollY + getViewportHeight();
+		extendLayout(viewportTop, viewportBottom);
+
+		final int first = findFirstVisiblePosition(viewportTop);
+		final int last = findLastVisiblePosition(viewportBottom);
+		final int range = Math.max(last - first + 1, 0);
+		if (mAttached.length < range) {
+			mAttached = new boolean[range * 2];
+		}
+		for (int i = 0; i < range; i++) {
+			mAttached[i] = false;
+		}
+
+		for (int i = getChildCount() - 1; i >= 0; i--) {
+			final View child = getChildAt(i);
+			final int position = getPosition(child);
+			if (position < first || position > last || !isVisible(position, viewportTop, viewportBottom)) {
+				removeViewInLayout(child);
+				addScrapView(child);
+			} else {
+				mAttached[position - first] = true;
+			}
+		}
+
+		for (int position = first; position <= last; position++) {
+			if (mAttached[position - first] || !isVisible(position, viewportTop, viewportBottom))
+				continue;
+			View view = takeMeasuredView(position);
+			if (view == null) {
+				view = obtainView(position);
+				measureChild(view, mColumns[position] < 0);
+			}
+			addViewInLayout(view, -1, view.getLayoutParams(), true);
+			layoutChild(view, position);
+		}
+		recycleMeasuredViews();
+		updatePinnedSection();
+		invalidate();
+	}
+
+	private boolean isVisible(int position, int viewportTop, int viewportBottom) {
+		return mBottoms[position] > viewportTop && mTops[position] < viewportBottom;
+	}
+
+	/** Returns the first laid out position whose bottom or any before it reaches below the top. */
+	private int findFirstVisiblePosition(int viewportTop) {
+		int low = 0;
+		int high = mLaidOutCount;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (mMaxBottoms[mid] > viewportTop) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	/** Returns the last laid out position starting above the bottom, tops never decrease. */
+	private int findLastVisiblePosition(int viewportBottom) {
+		int low = 0;
+		int high = mLaidOutCount;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (mTops[mid] < viewportBottom) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low - 1;
+	}
+
+	private void measureChild(View child, boolean header) {
+		measureChild(child, header ? mLayoutWidth : mColumnWidth);
+	}
+
+	private static void measureChild(View child, int width) {
+		child.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY), getHeightMeasureSpec(child));
+	}
+
+	private static int getHeightMeasureSpec(View child) {
+		final int height = child.getLayoutParams().height;
+		return height > 0
+				? MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY)
+				: MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+	}
+
+	@Override
+	void measureWrapChild(View child, int position, int contentWidth) {
+		final boolean header = PinnedSectionListView.isItemViewTypePinned(mAdapter, position);
+		measureChild(child, header ? contentWidth : Math.max(contentWidth - (mNumColumns - 1) * mItemMargin, 0) / mNumColumns);
+	}
+
+	/** Places a child at its cached geometry, whatever height it measured this time. */
+	private void layoutChild(View child, int position) {
+		final int column = mColumns[position];
+		final int left = getPaddingLeft() + (column < 0 ? 0 : column * (mColumnWidth + mItemMargin));
+		final int top = getPaddingTop() + mTops[position] - mScrollY;
+		child.layout(left, top, left + child.getMeasuredWidth(), top + mBottoms[position] - mTops[position]);
+	}
+
+	private int getViewportHeight() {
+		return getHeight() - getPaddingTop() - getPaddingBottom();
+	}
+
+	@Override
+	int getContentOffset() {
+		return mScrollY;
+	}
+
+	/**
+	 * Scrolls the content by the given offset and returns whether it moved.
+	 * The end is only known once the last position was laid out, until then
+	 * scrolling down lays out the positions coming into view. Not scrolling
+	 * at all lays out the viewport, which clamps it once the content shrank.
+	 */
+	@Override
+	boolean trackMotionScroll(int deltaY) {
+		int target = mScrollY + deltaY;
+		if (deltaY >= 0)
+			extendLayout(target, target + getViewportHeight());
+		if (mLaidOutCount == mAdapterCount) {
+			final int contentHeight = mLaidOutCount == 0 ? 0 : mMaxBottoms[mLaidOutCount - 1];
+			target = Math.min(target, Math.max(contentHeight - getViewportHeight(), 0));
+		}
+		target = Math.max(target, 0);
+		final int delta = target - mScrollY;
+		if (delta == 0)
+			return false;
+		mScrollY = target;
+		for (int i = getChildCount() - 1; i >= 0; i--) {
+			getChildAt(i).offsetTopAndBottom(-delta);
+		}
+		fill();
+		return true;
+	}
+
+	// -- recycling
+
+	private View takeMeasuredView(int position) {
+		for (int i = mMeasuredViews.size() - 1; i >= 0; i--) {
+			if (getPosition(mMeasuredViews.get(i)) == position)
+				return mMeasuredViews.remove(i);
+		}
+		return null;
+	}
+
+	private void recycleMeasuredViews() {
+		for (int i = mMeasuredViews.size() - 1; i >= 0; i--) {
+			addScrapView(mMeasuredViews.get(i));
+		}
+		mMeasuredViews.clear();
+	}
+
+	@Override
+	void onCapacityChanged(int size) {
+		mTops = copyOf(mTops, size);
+		mBottoms = copyOf(mBottoms, size);
+		mColumns = copyOf(mColumns, size);
+		mMaxBottoms = copyOf(mMaxBottoms, size);
+	}
+
+	@Override
+	protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
+		return new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+	}
+
+	// -- pinned section
+
+	@Override
+	int getPinnedWidthMeasureSpec(View view) {
+		return MeasureSpec.makeMeasureSpec(mLayoutWidth, MeasureSpec.EXACTLY);
+	}
+
+	@Override
+	int getPinnedHeightMeasureSpec(View view) {
+		return getHeightMeasureSpec(view);
+	}
+}
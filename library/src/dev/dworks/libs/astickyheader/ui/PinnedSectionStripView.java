@@ -0,0 +1,322 @@
+/*
+ * Copyright 2014 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader.ui;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ListAdapter;
+
+/**
+ * Horizontally scrolling strip which pins the label of the current section at
+ * its left edge, the way {@link PinnedSectionListView} pins it at the top. The
+ * next label pushes the pinned one away. It takes the adapters of
+ * PinnedSectionListView, so all sections share one strip and its recycled
+ * views instead of nesting a view per section.
+ * <p>
+ * Children keep their measured width and fill the height of the strip. Left
+ * and right edge of every position laid out so far are cached, positions are
+ * only measured once they scroll into view.
+ */
+public class PinnedSectionStripView extends PinnedSectionAdapterView {
+
+	private int mItemMargin;
+	private int mLayoutHeight;
+	private int mPendingSelection = INVALID_POSITION;
+
+	// layout cache, valid for the first mLaidOutCount positions
+	private int[] mLefts = new int[0];
+	private int[] mRights = new int[0];
+
+	/** Content offset of the left edge of the viewport. */
+	private int mScrollX;
+
+	public PinnedSectionStripView(Context context) {
+		this(context, null);
+	}
+
+	public PinnedSectionStripView(Context context, AttributeSet attrs) {
+		this(context, attrs, 0);
+	}
+
+	public PinnedSectionStripView(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle, false);
+	}
+
+	// -- public API methods
+
+	/** Sets the space between horizontally adjacent children. */
+	public void setItemMargin(int itemMargin) {
+		if (itemMargin == mItemMargin)
+			return;
+		mItemMargin = itemMargin;
+		resetLayout();
+		requestLayout();
+	}
+
+	public int getItemMargin() {
+		return mItemMargin;
+	}
+
+	@Override
+	public void setAdapter(ListAdapter adapter) {
+		super.setAdapter(adapter);
+		mScrollX = 0;
+	}
+
+	/** Scrolls the given position to the left edge. */
+	@Override
+	public void setSelection(int position) {
+		if (mAdapter == null || position < 0 || position >= mAdapterCount)
+			return;
+		if (mLayoutHeight == 0) {
+			mPendingSelection = position; // applied on layout
+			return;
+		}
+		while (mLaidOutCount <= position) {
+			layoutNext();
+		}
+		trackMotionScroll(mLefts[position] - mScrollX);
+	}
+
+	@Override
+	public int getFirstVisiblePosition() {
+		return getChildCount() == 0 ? INVALID_POSITION : getPosition(getChildAt(0));
+	}
+
+	@Override
+	public int getLastVisiblePosition() {
+		return getChildCount() == 0 ? INVALID_POSITION : getPosition(getChildAt(getChildCount() - 1));
+	}
+
+	// -- layout
+
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		final int height = b - t - getPaddingTop() - getPaddingBottom();
+		if (height != mLayoutHeight) {
+			// children fill the height, their widths may follow it
+			mLayoutHeight = height;
+			resetLayout();
+		}
+		if (mPendingSelection != INVALID_POSITION) {
+			final int position = mPendingSelection;
+			mPendingSelection = INVALID_POSITION;
+			setSelection(position);
+		}
+		// the content may have shrunk below the viewport
+		if (!trackMotionScroll(0))
+			fill();
+	}
+
+	@Override
+	void resetLayout() {
+		mLaidOutCount = 0;
+		mHeaderCount = 0;
+		recycleChildren();
+		destroyPinnedShadow();
+	}
+
+	/** Every position starts right of the one before it, so the layout can restart at any of them. */
+	@Override
+	void rewindLayout(int position) {
+		mLaidOutCount = Math.min(position, mLaidOutCount);
+		mHeaderCount = findHeaderForPosition(mLaidOutCount - 1) + 1;
+		recycleChildren(); // rebind them
+		destroyPinnedShadow();
+	}
+
+	/** Measures the next position and caches its edges, returns its view. */
+	private View layoutNext() {
+		final int position = mLaidOutCount;
+		ensureCapacity(position + 1);
+		final View view = obtainView(position);
+		measureChild(view);
+		final int left = position == 0 ? 0 : mRights[position - 1] + mItemMargin;
+		mLefts[position] = left;
+		mRights[position] = left + view.getMeasuredWidth();
+		if (PinnedSectionListView.isItemViewTypePinned(mAdapter, position))
+			addHeader(position, left);
+		mIds[position] = mAdapter.getItemId(position);
+		mLaidOutCount++;
+		return view;
+	}
+
+	/** Attaches the visible positions and recycles the children which left the viewport. */
+	private void fill() {
+		if (mAdapter == null || mLayoutHeight <= 0)
+			return;
+		final int viewportLeft = mScrollX;
+		final int viewportRight = mScrollX + getViewportWidth();
+
+		// children are attached in the order of their positions
+		while (getChildCount() > 0 && mRights[getPosition(getChildAt(0))] <= viewportLeft) {
+			final View child = getChildAt(0);
+			removeViewInLayout(child);
+			addScrapView(child);
+		}
+		while (getChildCount() > 0 && mLefts[getPosition(getChildAt(getChildCount() - 1))] >= viewportRight) {
+			final View child = getChildAt(getChildCount() - 1);
+			removeViewInLayout(child);
+			addScrapView(child);
+		}
+
+		if (getChildCount() == 0) {
+			final int first = findFirstVisiblePosition(viewportLeft);
+			if (first < mAdapterCount)
+				attachChild(first, -1);
+		}
+		if (getChildCount() > 0) {
+			int first = getPosition(getChildAt(0));
+			while (first > 0 && mRights[first - 1] > viewportLeft) {
+				attachChild(--first, 0);
+			}
+			int last = getPosition(getChildAt(getChildCount() - 1));
+			while (last + 1 < mAdapterCount && (last + 1 >= mLaidOutCount || mLefts[last + 1] < viewportRight)) {
+				attachChild(++last, -1);
+				if (mLefts[last] >= viewportRight) {
+					// measured past the edge
+					final View child = getChildAt(getChildCount() - 1);
+					removeViewInLayout(child);
+					addScrapView(child);
+					break;
+				}
+			}
+		}
+		updatePinnedSection();
+		invalidate();
+	}
+
+	/** Binds the position, measuring it first if it was never laid out, and adds it at the given index. */
+	private void attachChild(int position, int index) {
+		View view;
+		if (position == mLaidOutCount) {
+			view = layoutNext();
+		} else {
+			view = obtainView(position);
+			measureChild(view);
+		}
+		addViewInLayout(view, index, view.getLayoutParams(), true);
+		final int left = getPaddingLeft() + mLefts[position] - mScrollX;
+		final int top = getPaddingTop();
+		view.layout(left, top, left + mRights[position] - mLefts[position], top + view.getMeasuredHeight());
+	}
+
+	/** Returns the first position whose right edge is right of the given offset, laying out up to it. */
+	private int findFirstVisiblePosition(int viewportLeft) {
+		while (mLaidOutCount < mAdapterCount
+				&& (mLaidOutCount == 0 || mRights[mLaidOutCount - 1] <= viewportLeft)) {
+			addScrapView(layoutNext());
+		}
+		int low = 0;
+		int high = mLaidOutCount;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (mRights[mid] > viewportLeft) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	private void measureChild(View child) {
+		child.measure(getWidthMeasureSpec(child), MeasureSpec.makeMeasureSpec(mLayoutHeight, MeasureSpec.EXACTLY));
+	}
+
+	@Override
+	void measureWrapChild(View child, int position, int contentWidth) {
+		final int height = child.getLayoutParams().height;
+		child.measure(getWidthMeasureSpec(child), height > 0
+				? MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY)
+				: MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+	}
+
+	private static int getWidthMeasureSpec(View child) {
+		final int width = child.getLayoutParams().width;
+		return width > 0
+				? MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY)
+				: MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+	}
+
+	private int getViewportWidth() {
+		return getWidth() - getPaddingLeft() - getPaddingRight();
+	}
+
+	@Override
+	int getContentOffset() {
+		return mScrollX;
+	}
+
+	/**
+	 * Scrolls the content by the given offset and returns whether it moved.
+	 * The end is only known once the last position was laid out, until then
+	 * scrolling right lays out the positions coming into view. Not scrolling
+	 * at all lays out the viewport, which clamps it once the content shrank.
+	 */
+	@Override
+	boolean trackMotionScroll(int deltaX) {
+		int target = mScrollX + deltaX;
+		if (deltaX >= 0) {
+			while (mLaidOutCount < mAdapterCount
+					&& (mLaidOutCount == 0 || mRights[mLaidOutCount - 1] < target + getViewportWidth())) {
+				addScrapView(layoutNext());
+			}
+		}
+		if (mLaidOutCount == mAdapterCount) {
+			final int contentWidth = mLaidOutCount == 0 ? 0 : mRights[mLaidOutCount - 1];
+			target = Math.min(target, Math.max(contentWidth - getViewportWidth(), 0));
+		}
+		target = Math.max(target, 0);
+		final int delta = target - mScrollX;
+		if (delta == 0)
+			return false;
+		mScrollX = target;
+		for (int i = getChildCount() - 1; i >= 0; i--) {
+			getChildAt(i).offsetLeftAndRight(-delta);
+		}
+		fill();
+		return true;
+	}
+
+	// -- recycling
+
+	@Override
+	void onCapacityChanged(int size) {
+		mLefts = copyOf(mLefts, size);
+		mRights = copyOf(mRights, size);
+	}
+
+	@Override
+	protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
+		return new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.MATCH_PARENT);
+	}
+
+	// -- pinned section
+
+	@Override
+	int getPinnedWidthMeasureSpec(View view) {
+		return getWidthMeasureSpec(view);
+	}
+
+	@Override
+	int getPinnedHeightMeasureSpec(View view) {
+		return MeasureSpec.makeMeasureSpec(mLayoutHeight, MeasureSpec.EXACTLY);
+	}
+}
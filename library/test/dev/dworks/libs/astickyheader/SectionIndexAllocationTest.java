@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+/**
+ * Checks that the index lookups made by the pinned views on every scroll
+ * frame allocate nothing: the section of the first visible position, the
+ * header position of that section and the cell type of the visible
+ * positions, as asked through the SectionIndexer and
+ * isItemViewTypePinned() methods of the adapters.
+ */
+public class SectionIndexAllocationTest {
+	private static final int SECTIONS = 10000;
+	private static final int COLUMNS = 3;
+	private static final int WARMUPS = 5;
+	private static final int RUNS = 3;
+
+	/** Keeps the JIT from dropping the lookups as unused. */
+	static volatile int sSink;
+
+	@Test
+	public void scrollLookupsDoNotAllocate() {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		final SectionIndex<Object> index = new SectionIndex<Object>(COLUMNS);
+		final Object section = new Object();
+		for (int i = 0; i < SECTIONS; i++) {
+			index.add(i * 7, 0, section);
+		}
+		final int count = SECTIONS * 7 + index.getExtraCount();
+
+		// the first pass computes the header rows, later ones only read them
+		for (int i = 0; i < WARMUPS; i++) {
+			scroll(index, count);
+		}
+		// the JIT may still allocate while it swaps compiled code in, so the
+		// best of a few runs counts; a lookup that allocates does it every time
+		final long thread = Thread.currentThread().getId();
+		long allocated = Long.MAX_VALUE;
+		for (int i = 0; i < RUNS; i++) {
+			final long overhead = measure(threads, thread, null, 0);
+			allocated = Math.min(allocated, measure(threads, thread, index, count) - overhead);
+		}
+		assertEquals("bytes allocated by the scroll lookups", 0, allocated);
+	}
+
+	private static long measure(final com.sun.management.ThreadMXBean threads, final long thread,
+			final SectionIndex<Object> index, final int count) {
+		final long before = threads.getThreadAllocatedBytes(thread);
+		if (index != null) {
+			sSink = scroll(index, count);
+		}
+		return threads.getThreadAllocatedBytes(thread) - before;
+	}
+
+	/** Scrolls down and back up a row at a time, with a screen of ten rows. */
+	private static int scroll(final SectionIndex<Object> index, final int count) {
+		int sum = 0;
+		for (int first = 0; first < count; first += COLUMNS) {
+			sum += frame(index, first, count);
+		}
+		for (int first = count - 1; first >= 0; first -= COLUMNS) {
+			sum += frame(index, first, count);
+		}
+		return sum;
+	}
+
+	private static int frame(final SectionIndex<Object> index, final int first, final int count) {
+		// findCurrentSectionPosition()
+		final int section = index.getSectionForPosition(first);
+		int sum = index.getPositionForSection(section);
+		// findFirstVisibleSectionPosition() and the pinned checks
+		final int last = Math.min(first + 10 * COLUMNS, count);
+		for (int position = first; position < last; position++) {
+			if (index.getCellType(position) == SectionIndex.CELL_HEADER) {
+				sum += index.findSectionForHeader(position);
+			} else if (index.isItem(position)) {
+				sum += index.sectionedPositionToPosition(position);
+			} else {
+				sum += index.getCellSlot(position);
+			}
+		}
+		return sum;
+	}
+}
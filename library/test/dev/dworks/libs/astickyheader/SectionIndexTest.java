@@ -0,0 +1,175 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the section index against the linear mapping the adapters used
+ * before it: every cell is laid out in a list, header fillers and the header
+ * first, then the items, then the fillers padding the last row of every
+ * section but the last one, and positions are looked up by walking it.
+ */
+public class SectionIndexTest {
+	private static final int ROUNDS = 500;
+	private static final int EDITS = 20;
+
+	@Test
+	public void matchesLinearMapping() {
+		final Random random = new Random(42);
+		for (int round = 0; round < ROUNDS; round++) {
+			final int columns = 1 + random.nextInt(5);
+			final int itemCount = random.nextInt(200);
+			final SectionIndex<Integer> index = new SectionIndex<Integer>(columns);
+			final List<Integer> firstPositions = new ArrayList<Integer>();
+
+			int position = random.nextInt(3) == 0 ? random.nextInt(5) : 0;
+			while (position <= itemCount && random.nextInt(20) != 0) {
+				index.add(position, 0, position);
+				firstPositions.add(position);
+				// empty sections too
+				position += random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(15);
+			}
+			assertMapping("round " + round, index, firstPositions, columns, itemCount, random);
+
+			for (int edit = 0; edit < EDITS; edit++) {
+				final String message = "round " + round + ", edit " + edit;
+				switch (random.nextInt(4)) {
+				case 0:
+					final int inserted = random.nextInt(itemCount + 1);
+					assertEquals(message, insert(firstPositions, inserted), index.insert(inserted, 0, inserted));
+					break;
+				case 1:
+					if (!firstPositions.isEmpty()) {
+						final int removed = random.nextInt(firstPositions.size());
+						firstPositions.remove(removed);
+						index.remove(removed);
+					}
+					break;
+				case 2:
+					// items inserted or removed at a random position
+					final int from = random.nextInt(itemCount + 1);
+					final int delta = random.nextInt(2 * from + 1) - from;
+					shift(firstPositions, from, delta);
+					index.shiftItems(from, delta);
+					break;
+				default:
+					index.setColumns(1 + random.nextInt(5));
+					break;
+				}
+				clampLastSections(firstPositions, index, itemCount);
+				assertMapping(message, index, firstPositions, index.getColumns(), itemCount, random);
+			}
+		}
+	}
+
+	/** Inserts after the sections starting at or before the position, like SectionIndex.insert(). */
+	private static int insert(final List<Integer> firstPositions, final int position) {
+		int index = 0;
+		while (index < firstPositions.size() && firstPositions.get(index) <= position) {
+			index++;
+		}
+		firstPositions.add(index, position);
+		return index;
+	}
+
+	private static void shift(final List<Integer> firstPositions, final int from, final int delta) {
+		for (int i = 0; i < firstPositions.size(); i++) {
+			final int first = firstPositions.get(i);
+			if (first > from) {
+				firstPositions.set(i, Math.max(from, first + delta));
+			}
+		}
+	}
+
+	/** Drops sections shifted past the items, from both the list and the index. */
+	private static void clampLastSections(final List<Integer> firstPositions, final SectionIndex<Integer> index,
+			final int itemCount) {
+		while (!firstPositions.isEmpty() && firstPositions.get(firstPositions.size() - 1) > itemCount) {
+			firstPositions.remove(firstPositions.size() - 1);
+			index.remove(index.size() - 1);
+		}
+	}
+
+	private static void assertMapping(final String message, final SectionIndex<Integer> index,
+			final List<Integer> firstPositions, final int columns, final int itemCount, final Random random) {
+		// the linear layout, cells hold the item position or -1
+		final List<Integer> cells = new ArrayList<Integer>();
+		final List<Integer> types = new ArrayList<Integer>();
+		final List<Integer> sections = new ArrayList<Integer>();
+		final List<Integer> headers = new ArrayList<Integer>();
+		final int sectionCount = firstPositions.size();
+		final int leading = sectionCount == 0 ? itemCount : firstPositions.get(0);
+		for (int i = 0; i < leading; i++) {
+			cells.add(i);
+			types.add(SectionIndex.CELL_ITEM);
+			sections.add(-1);
+		}
+		for (int s = 0; s < sectionCount; s++) {
+			for (int j = 0; j < columns - 1; j++) {
+				cells.add(-1);
+				types.add(SectionIndex.CELL_HEADER_FILLER);
+				sections.add(s);
+			}
+			headers.add(cells.size());
+			cells.add(-1);
+			types.add(SectionIndex.CELL_HEADER);
+			sections.add(s);
+			final int end = s == sectionCount - 1 ? itemCount : firstPositions.get(s + 1);
+			for (int i = firstPositions.get(s); i < end; i++) {
+				cells.add(i);
+				types.add(SectionIndex.CELL_ITEM);
+				sections.add(s);
+			}
+			final int itemsCount = end - firstPositions.get(s);
+			final int dummyCount = columns - (itemsCount % columns);
+			if (s < sectionCount - 1 && dummyCount != columns) {
+				for (int k = 0; k < dummyCount; k++) {
+					cells.add(-1);
+					types.add(SectionIndex.CELL_FILLER);
+					sections.add(s);
+				}
+			}
+		}
+
+		assertEquals(message, sectionCount, index.size());
+		assertEquals(message, cells.size() - itemCount, index.getExtraCount());
+		for (int s = 0; s < sectionCount; s++) {
+			assertEquals(message, (int) firstPositions.get(s), index.getFirstPosition(s));
+			assertEquals(message, (int) headers.get(s), index.getHeaderPosition(s));
+		}
+		// in order, as while scrolling, and at random, as after a jump
+		for (int pass = 0; pass < 2; pass++) {
+			for (int i = 0; i < cells.size(); i++) {
+				final int sectionedPosition = pass == 0 ? i : random.nextInt(cells.size());
+				final String at = message + ", sectioned position " + sectionedPosition;
+				assertEquals(at, (int) types.get(sectionedPosition), index.getCellType(sectionedPosition));
+				assertEquals(at, (int) cells.get(sectionedPosition), index.sectionedPositionToPosition(sectionedPosition));
+				assertEquals(at, (int) sections.get(sectionedPosition), index.findSection(sectionedPosition));
+				if (cells.get(sectionedPosition) >= 0) {
+					assertEquals(at, sectionedPosition, index.positionToSectionedPosition(cells.get(sectionedPosition)));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2013 Hari Krishna Dulipudi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.dworks.libs.astickyheader.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import android.widget.SectionIndexer;
+import dev.dworks.libs.astickyheader.SectionIndex;
+
+/**
+ * Checks that the section lookups of the pinned list and grid views' onScroll()
+ * allocate nothing. The finder is backed by a section index the way the
+ * sectioned adapters back isItemViewTypePinned() and their SectionIndexer,
+ * and every frame makes the calls onScroll() and ensureShadowForPosition()
+ * make: the first row check, the current section and the next visible one.
+ */
+public class PinnedSectionFinderAllocationTest {
+	private static final int SECTIONS = 10000;
+	private static final int COLUMNS = 3;
+	private static final int VISIBLE = 10 * COLUMNS;
+	private static final int WARMUPS = 5;
+	private static final int RUNS = 3;
+
+	/** Keeps the JIT from dropping the lookups as unused. */
+	static volatile int sSink;
+
+	@Test
+	public void scrollFramesDoNotAllocate() {
+		final SectionIndex<Object> index = newIndex();
+		assertNoAllocation(newFinder(index, true), getCount(index));
+	}
+
+	@Test
+	public void scrollFramesWithoutIndexerDoNotAllocate() {
+		final SectionIndex<Object> index = newIndex();
+		assertNoAllocation(newFinder(index, false), getCount(index));
+	}
+
+	@Test
+	public void findsTheSectionOfEveryPosition() {
+		final SectionIndex<Object> index = newIndex();
+		final PinnedSectionFinder finder = newFinder(index, true);
+		final PinnedSectionFinder slowFinder = newFinder(index, false);
+		final int count = getCount(index);
+		for (int position = 0; position < count; position++) {
+			// header fillers come before the header cell of their row
+			final int section = index.findSectionForHeader(position);
+			final int header = section < 0 ? -1 : index.getHeaderPosition(section);
+			assertEquals(header, finder.findCurrentSectionPosition(position));
+			assertEquals(header, slowFinder.findCurrentSectionPosition(position));
+		}
+	}
+
+	private static void assertNoAllocation(final PinnedSectionFinder finder, final int count) {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		for (int i = 0; i < WARMUPS; i++) {
+			scroll(finder, count);
+		}
+		// the JIT may still allocate while it swaps compiled code in, so the
+		// best of a few runs counts; a lookup that allocates does it every time
+		final long thread = Thread.currentThread().getId();
+		long allocated = Long.MAX_VALUE;
+		for (int i = 0; i < RUNS; i++) {
+			final long overhead = measure(threads, thread, null, 0);
+			allocated = Math.min(allocated, measure(threads, thread, finder, count) - overhead);
+		}
+		assertEquals("bytes allocated by the scroll frames", 0, allocated);
+	}
+
+	private static long measure(final com.sun.management.ThreadMXBean threads, final long thread,
+			final PinnedSectionFinder finder, final int count) {
+		final long before = threads.getThreadAllocatedBytes(thread);
+		if (finder != null) {
+			sSink = scroll(finder, count);
+		}
+		return threads.getThreadAllocatedBytes(thread) - before;
+	}
+
+	/** Scrolls down and back up a row at a time. */
+	private static int scroll(final PinnedSectionFinder finder, final int count) {
+		int sum = 0;
+		for (int first = 0; first < count; first += COLUMNS) {
+			sum += frame(finder, first, count);
+		}
+		for (int first = count - 1; first >= 0; first -= COLUMNS) {
+			sum += frame(finder, first, count);
+		}
+		return sum;
+	}
+
+	private static int frame(final PinnedSectionFinder finder, final int first, final int count) {
+		final int visible = Math.min(VISIBLE, count - first);
+		int section = finder.findFirstVisibleSectionPosition(first, Math.min(COLUMNS, visible));
+		if (section < 0)
+			section = finder.findCurrentSectionPosition(first);
+		final int next = section + 1;
+		return section + finder.findFirstVisibleSectionPosition(next, visible - (next - first));
+	}
+
+	private static SectionIndex<Object> newIndex() {
+		final SectionIndex<Object> index = new SectionIndex<Object>(COLUMNS);
+		final Object section = new Object();
+		for (int i = 0; i < SECTIONS; i++) {
+			index.add(i * 7, 0, section);
+		}
+		return index;
+	}
+
+	private static int getCount(final SectionIndex<Object> index) {
+		return SECTIONS * 7 + index.getExtraCount();
+	}
+
+	/** A finder asking the index the way the sectioned grid adapters do. */
+	private static PinnedSectionFinder newFinder(final SectionIndex<Object> index, final boolean withIndexer) {
+		final SectionIndexer indexer = !withIndexer ? null : new SectionIndexer() {
+			private final Object[] mSections = new Object[0];
+
+			@Override
+			public Object[] getSections() {
+				return mSections;
+			}
+
+			@Override
+			public int getPositionForSection(final int section) {
+				return index.getPositionForSection(section);
+			}
+
+			@Override
+			public int getSectionForPosition(final int position) {
+				return index.getSectionForPosition(position);
+			}
+		};
+		return new PinnedSectionFinder() {
+			@Override
+			boolean isPinned(final int position) {
+				return index.getCellType(position) == SectionIndex.CELL_HEADER;
+			}
+
+			@Override
+			SectionIndexer getIndexer() {
+				return indexer;
+			}
+		};
+	}
+}